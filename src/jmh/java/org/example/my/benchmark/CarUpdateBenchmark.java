@@ -0,0 +1,37 @@
+package org.example.my.benchmark;
+
+import org.example.my.model.Car;
+import org.example.my.model.Position;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Движение одного танка за тик (Car.update)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CarUpdateBenchmark {
+
+    private Car car;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        car = Car.builder()
+                .position(new Position(400, 300, 30))
+                .build();
+    }
+
+    @Benchmark
+    public Car update() {
+        // Танк едет по кругу и не упирается в стену
+        car.moveForward(1.0);
+        car.turnLeft(1.0);
+        car.update();
+        return car;
+    }
+}
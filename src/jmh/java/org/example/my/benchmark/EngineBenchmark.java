@@ -0,0 +1,60 @@
+package org.example.my.benchmark;
+
+import org.example.my.ai.AIRegistry;
+import org.example.my.ai.CarAI;
+import org.example.my.ai.template.AggressiveCarAI;
+import org.example.my.ai.template.DefensiveCarAI;
+import org.example.my.ai.template.SimpleCarAI;
+import org.example.my.controller.GameEngine;
+import org.example.my.model.GameMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный тик движка (GameEngine.updateGame) для боев разного размера.
+ * Когда бой заканчивается, он перезапускается с тем же зерном.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+
+    private static final String[] AIS = {"aggressive", "defensive", "simple"};
+    private static final AIRegistry REGISTRY =
+            new AIRegistry(List.of(new AggressiveCarAI(), new DefensiveCarAI(), new SimpleCarAI()));
+    private static final int MAX_TICKS = 3600;
+
+    @Param({"2", "16", "64"})
+    public int tanks;
+
+    private GameEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new GameEngine(42L);
+        engine.setHeadless(true);
+        restart();
+    }
+
+    @Benchmark
+    public void updateGame() {
+        if (engine.isGameOver() || engine.getTick() >= MAX_TICKS) {
+            restart();
+        }
+        engine.updateGame();
+    }
+
+    private void restart() {
+        List<CarAI> ais = new ArrayList<>(tanks);
+        for (int t = 0; t < tanks; t++) {
+            ais.add(REGISTRY.create(AIS[t % AIS.length]));
+        }
+        engine.initializeGame(GameMode.FFA, 2, ais);
+    }
+}
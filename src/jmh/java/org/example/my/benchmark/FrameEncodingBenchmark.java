@@ -0,0 +1,78 @@
+package org.example.my.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.my.ai.CarAI;
+import org.example.my.ai.template.AggressiveCarAI;
+import org.example.my.ai.template.DefensiveCarAI;
+import org.example.my.controller.GameEngine;
+import org.example.my.engine.BinaryFrameEncoder;
+import org.example.my.engine.MatchFrameEncoder;
+import org.example.my.engine.SimulationClock;
+import org.example.my.model.GameMode;
+import org.example.my.model.MatchFrame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кадр для зрителей: дельта в JSON (MatchFrameEncoder + Jackson) против двоичной (BinaryFrameEncoder).
+ * Кадры записаны заранее из идущего боя, замеряется только кодирование.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameEncodingBenchmark {
+
+    private static final int FRAMES = 240;
+    private static final int KEYFRAME_INTERVAL = 120;
+
+    @Param({"2", "16"})
+    public int tanks;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<MatchFrame> frames = new ArrayList<>(FRAMES);
+    private MatchFrameEncoder jsonEncoder;
+    private BinaryFrameEncoder binaryEncoder;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GameEngine engine = new GameEngine(42L);
+        engine.setHeadless(true);
+
+        List<CarAI> ais = new ArrayList<>(tanks);
+        for (int t = 0; t < tanks; t++) {
+            ais.add(t % 2 == 0 ? new AggressiveCarAI() : new DefensiveCarAI());
+        }
+        engine.initializeGame(GameMode.FFA, 2, ais);
+        for (int i = 0; i < FRAMES; i++) {
+            engine.updateGame();
+            frames.add(engine.captureFrame());
+        }
+
+        jsonEncoder = new MatchFrameEncoder(KEYFRAME_INTERVAL, SimulationClock.TICKS_PER_SECOND);
+        binaryEncoder = new BinaryFrameEncoder(KEYFRAME_INTERVAL, SimulationClock.TICKS_PER_SECOND);
+    }
+
+    @Benchmark
+    public byte[] json() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(jsonEncoder.next(nextFrame()));
+    }
+
+    @Benchmark
+    public byte[] binary() {
+        return binaryEncoder.next(nextFrame());
+    }
+
+    private MatchFrame nextFrame() {
+        MatchFrame frame = frames.get(next);
+        next = (next + 1) % FRAMES;
+        return frame;
+    }
+}
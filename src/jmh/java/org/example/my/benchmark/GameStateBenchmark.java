@@ -0,0 +1,59 @@
+package org.example.my.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.my.ai.CarAI;
+import org.example.my.ai.template.AggressiveCarAI;
+import org.example.my.ai.template.DefensiveCarAI;
+import org.example.my.controller.GameEngine;
+import org.example.my.model.GameMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка состояния для клиента (getGameState) и его сериализация в JSON
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameStateBenchmark {
+
+    @Param({"2", "16"})
+    public int tanks;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private GameEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new GameEngine(42L);
+        engine.setHeadless(true);
+
+        List<CarAI> ais = new ArrayList<>(tanks);
+        for (int t = 0; t < tanks; t++) {
+            ais.add(t % 2 == 0 ? new AggressiveCarAI() : new DefensiveCarAI());
+        }
+        engine.initializeGame(GameMode.FFA, 2, ais);
+        // Середина боя: танки разъехались, в воздухе есть пули
+        for (int i = 0; i < 120 && !engine.isGameOver(); i++) {
+            engine.updateGame();
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> getGameState() {
+        return engine.getGameState();
+    }
+
+    @Benchmark
+    public byte[] getGameStateJson() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(engine.getGameState());
+    }
+}
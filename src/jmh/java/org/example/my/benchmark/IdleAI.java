@@ -0,0 +1,36 @@
+package org.example.my.benchmark;
+
+import org.example.my.ai.WorldAwareCarAI;
+import org.example.my.ai.WorldView;
+import org.example.my.model.CarAction;
+
+/**
+ * AI, который стоит на месте: нужен там, где бенчмарку важна неподвижная расстановка танков
+ */
+public class IdleAI implements WorldAwareCarAI {
+
+    @Override
+    public CarAction decideAction(WorldView world) {
+        return new CarAction(CarAction.ActionType.IDLE);
+    }
+
+    @Override
+    public int getShootingRange() {
+        return 3;
+    }
+
+    @Override
+    public int getMovementSpeed() {
+        return 3;
+    }
+
+    @Override
+    public int getFireRate() {
+        return 3;
+    }
+
+    @Override
+    public String getAIName() {
+        return "Idle AI";
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.my.benchmark;
+
+import org.example.my.ai.CarAI;
+import org.example.my.ai.template.AggressiveCarAI;
+import org.example.my.ai.template.DefensiveCarAI;
+import org.example.my.ai.template.SimpleCarAI;
+import org.example.my.controller.GameEngine;
+import org.example.my.engine.ReplayStore;
+import org.example.my.model.BulletView;
+import org.example.my.model.GameMode;
+import org.example.my.model.MatchFrame;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Тик повтора записанного раунда: действия читаются из записи, AI не вызываются.
+ * Перед замером раунд записывается и повторяется с проверкой: состояние после каждого тика повтора
+ * должно совпасть с записанным боем, иначе бенчмарк падает.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplayBenchmark {
+
+    private static final long SEED = 42L;
+    private static final int MAX_TICKS = 3600;
+    // Смена AI посреди боя тоже попадает в запись
+    private static final int SWAP_TICK = 300;
+
+    @Param({"2", "16", "64"})
+    public int tanks;
+
+    private Path directory;
+    private ReplayStore store;
+    private String id;
+    private GameEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("replay-benchmark");
+        store = new ReplayStore(true, directory.toString(), 64, 1800, 0, 0);
+
+        long[] recorded = record();
+        id = store.list().get(0);
+        verify(recorded);
+
+        engine = new GameEngine(SEED);
+        engine.setHeadless(true);
+        engine.initializeReplay(store.open(id));
+    }
+
+    @Benchmark
+    public void replayTick() throws IOException {
+        if (!engine.isGameRunning()) {
+            engine.initializeReplay(store.open(id));
+        }
+        engine.updateGame();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        engine.stopGame();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Записывает раунд и возвращает отпечатки состояния после каждого тика
+    private long[] record() {
+        GameEngine recording = new GameEngine(SEED);
+        recording.setHeadless(true);
+        recording.setReplayStore(store, "benchmark");
+
+        List<CarAI> ais = new ArrayList<>(tanks);
+        for (int t = 0; t < tanks; t++) {
+            ais.add(t % 2 == 0 ? new AggressiveCarAI() : new DefensiveCarAI());
+        }
+        recording.initializeGame(GameMode.FFA, 2, ais);
+
+        long[] states = new long[MAX_TICKS];
+        int ticks = 0;
+        while (!recording.isGameOver() && ticks < MAX_TICKS) {
+            if (recording.getTick() == SWAP_TICK) {
+                recording.setPlayerAI(2, new SimpleCarAI());
+            }
+            recording.updateGame();
+            states[ticks++] = fingerprint(recording.captureFrame());
+        }
+        recording.stopGame();
+        return Arrays.copyOf(states, ticks);
+    }
+
+    private void verify(long[] recorded) throws IOException {
+        GameEngine replay = new GameEngine(SEED);
+        replay.setHeadless(true);
+        replay.initializeReplay(store.open(id));
+
+        int ticks = 0;
+        while (true) {
+            replay.updateGame();
+            if (!replay.isGameRunning()) {
+                break;
+            }
+            if (ticks >= recorded.length || fingerprint(replay.captureFrame()) != recorded[ticks]) {
+                throw new IllegalStateException("Replay " + id + " diverged from the recorded round at tick " + ticks);
+            }
+            ticks++;
+        }
+        if (ticks != recorded.length) {
+            throw new IllegalStateException(
+                    String.format("Replay %s has %d ticks, the recorded round has %d", id, ticks, recorded.length));
+        }
+        replay.stopGame();
+    }
+
+    private static long fingerprint(MatchFrame frame) {
+        long hash = Objects.hash(frame.tick(), frame.winner(), frame.tanks(), frame.ais());
+        BulletView bullets = frame.bullets();
+        for (int i = 0; i < bullets.size(); i++) {
+            hash = 31 * hash + Objects.hash(bullets.id(i), bullets.owner(i), bullets.x(i), bullets.y(i),
+                    bullets.dx(i), bullets.dy(i), bullets.ticksLeft(i));
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.my.benchmark;
+
+import org.example.my.ai.CarAI;
+import org.example.my.ai.NearestEnemyAdapter;
+import org.example.my.ai.WorldAwareCarAI;
+import org.example.my.ai.WorldView;
+import org.example.my.ai.template.AggressiveCarAI;
+import org.example.my.ai.template.DefensiveCarAI;
+import org.example.my.controller.GameEngine;
+import org.example.my.model.Bullet;
+import org.example.my.model.BulletView;
+import org.example.my.model.Car;
+import org.example.my.model.CarAction;
+import org.example.my.model.GameMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Одно решение каждого шаблонного AI. Решения принимаются по ситуациям,
+ * записанным из настоящего боя (Aggressive против Defensive с фиксированным зерном).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateAIBenchmark {
+
+    private static final int RECORD_EVERY = 10;
+    private static final int MAX_TICKS = 3600;
+
+    @Param({"Aggressive", "Defensive", "Simple", "Sniper", "Test", "Test2", "User"})
+    public String ai;
+
+    private CarAI carAI;
+    private List<Situation> situations;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        carAI = (CarAI) Class.forName("org.example.my.ai.template." + ai + "CarAI")
+                .getDeclaredConstructor().newInstance();
+        situations = record();
+    }
+
+    @Benchmark
+    public CarAction decideAction() {
+        Situation s = situations.get(next);
+        next = (next + 1) % situations.size();
+        return carAI.decideAction(s.me, s.opponent, s.bullets);
+    }
+
+    private static List<Situation> record() {
+        Recorder recorder = new Recorder(new AggressiveCarAI());
+        GameEngine engine = new GameEngine(42L);
+        engine.setHeadless(true);
+        engine.initializeGame(GameMode.FFA, 2, List.of(recorder, new DefensiveCarAI()));
+        while (!engine.isGameOver() && engine.getTick() < MAX_TICKS) {
+            engine.updateGame();
+        }
+        if (recorder.situations.isEmpty()) {
+            throw new IllegalStateException("No situations recorded");
+        }
+        return recorder.situations;
+    }
+
+    private record Situation(Car me, Car opponent, List<Bullet> bullets) {
+    }
+
+    /**
+     * Играет за переданный AI и каждые RECORD_EVERY тиков сохраняет копию того, что он видел
+     */
+    private static final class Recorder implements WorldAwareCarAI {
+
+        private final CarAI delegate;
+        private final WorldAwareCarAI adapter;
+        private final List<Situation> situations = new ArrayList<>();
+
+        private Recorder(CarAI delegate) {
+            this.delegate = delegate;
+            this.adapter = new NearestEnemyAdapter(delegate);
+        }
+
+        @Override
+        public CarAction decideAction(WorldView world) {
+            if (world.tick() % RECORD_EVERY == 0 && !world.enemies().isEmpty()) {
+                Car me = copy(world, world.selfIndex());
+                Car opponent = copy(world, 1 - world.selfIndex());
+                BulletView view = world.bullets();
+                List<Bullet> bullets = new ArrayList<>(view.size());
+                for (int i = 0; i < view.size(); i++) {
+                    bullets.add(Bullet.builder()
+                            .x(view.x(i)).y(view.y(i)).angle(view.angle(i))
+                            .speed(Math.hypot(view.dx(i), view.dy(i))).damage(view.damage(i))
+                            .lifetimeTicks(view.ticksLeft(i))
+                            .owner(view.owner(i) == world.selfIndex() ? me : opponent)
+                            .build());
+                }
+                situations.add(new Situation(me, opponent, bullets));
+            }
+            return adapter.decideAction(world);
+        }
+
+        private static Car copy(WorldView world, int index) {
+            Car car = new Car();
+            world.snapshot().tanks().get(index).copyTo(car);
+            car.setRandom(new SplittableRandom(index));
+            return car;
+        }
+
+        @Override
+        public int getShootingRange() {
+            return delegate.getShootingRange();
+        }
+
+        @Override
+        public int getMovementSpeed() {
+            return delegate.getMovementSpeed();
+        }
+
+        @Override
+        public int getFireRate() {
+            return delegate.getFireRate();
+        }
+
+        @Override
+        public String getAIName() {
+            return delegate.getAIName();
+        }
+    }
+}
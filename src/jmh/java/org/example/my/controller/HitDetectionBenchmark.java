@@ -0,0 +1,84 @@
+package org.example.my.controller;
+
+import org.example.my.ai.CarAI;
+import org.example.my.benchmark.IdleAI;
+import org.example.my.model.BulletPool;
+import org.example.my.model.GameMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка попаданий (GameEngine.checkBulletHits) при 10/100/1000 пуль в полете.
+ * Пули расставлены так, что ни одна не попадает: состояние не меняется между вызовами
+ * и замеряется основной случай - поиск кандидатов в сетке и swept-проверка промахов.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HitDetectionBenchmark {
+
+    private static final int TANKS = 16;
+    private static final double BULLET_SPEED = 6;
+    // Радиус попадания плюс ход пули за тик с запасом
+    private static final double CLEARANCE = 25 + BULLET_SPEED + 1;
+
+    @Param({"10", "100", "1000"})
+    public int bullets;
+
+    private GameEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new GameEngine(42L);
+        engine.setHeadless(true);
+
+        List<CarAI> ais = new ArrayList<>(TANKS);
+        for (int t = 0; t < TANKS; t++) {
+            ais.add(new IdleAI());
+        }
+        engine.initializeGame(GameMode.FFA, 2, ais);
+        // Один тик, чтобы движок запомнил позиции танков на начало тика
+        engine.updateGame();
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> tanks = (List<Map<String, Object>>) engine.getGameState().get("tanks");
+
+        BulletPool pool = engine.getBulletPool();
+        pool.clear();
+        SplittableRandom random = new SplittableRandom(7L);
+        while (pool.size() < bullets) {
+            double x = random.nextDouble(GameEngine.ARENA_WIDTH);
+            double y = random.nextDouble(GameEngine.ARENA_HEIGHT);
+            if (nearAnyTank(tanks, x, y)) {
+                continue;
+            }
+            pool.spawn(x, y, random.nextDouble(360), BULLET_SPEED, Integer.MAX_VALUE,
+                    random.nextInt(TANKS), 25);
+        }
+    }
+
+    @Benchmark
+    public int checkBulletHits() {
+        engine.checkBulletHits();
+        return engine.getBulletCount();
+    }
+
+    private static boolean nearAnyTank(List<Map<String, Object>> tanks, double x, double y) {
+        for (Map<String, Object> tank : tanks) {
+            double dx = x - (double) tank.get("x");
+            double dy = y - (double) tank.get("y");
+            if (dx * dx + dy * dy < CLEARANCE * CLEARANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
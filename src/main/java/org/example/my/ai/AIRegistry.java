@@ -0,0 +1,129 @@
+package org.example.my.ai;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Единый реестр AI, которые можно поставить в бой: шаблонные (Spring-компоненты CarAI)
+ * и успешно скомпилированные пользовательские. Поиск по имени без блокировок;
+ * для каждого танка фабрика создает свой экземпляр, так что AI с состоянием не делят его между матчами.
+ * Имена: шаблонные - по классу без "CarAI" ("aggressive", "test2"), пользовательские - "custom:имя".
+ */
+@Component
+public class AIRegistry {
+
+    public static final String CUSTOM_PREFIX = "custom:";
+
+    public enum Kind {
+        TEMPLATE, CUSTOM
+    }
+
+    /**
+     * Запись реестра; type - класс шаблонного AI, version - номер загрузки пользовательского
+     */
+    public record Entry(String id, String name, Kind kind, String type, int version, Supplier<CarAI> factory) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Текущая версия каждого пользовательского AI; фабрики записей берут копии у нее
+    private final Map<String, DynamicCarAI> customs = new ConcurrentHashMap<>();
+
+    public AIRegistry(List<CarAI> templates) {
+        for (CarAI template : templates) {
+            Class<? extends CarAI> type = template.getClass();
+            String id = templateId(type);
+            entries.put(id, new Entry(id, template.getAIName(), Kind.TEMPLATE, type.getSimpleName(), 1,
+                    () -> instantiate(type)));
+        }
+        System.out.printf("🤖 AI registry: %d templates %s%n", entries.size(), entries.keySet().stream().sorted().toList());
+    }
+
+    /**
+     * Новый экземпляр AI для одного танка; неизвестное имя - IllegalArgumentException
+     */
+    public CarAI create(String id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            throw new IllegalArgumentException("Unknown AI: " + id);
+        }
+        return entry.factory().get();
+    }
+
+    public Entry get(String id) {
+        return entries.get(id);
+    }
+
+    /**
+     * Новая версия пользовательского AI заменяет прежнюю; бои с прежней версией ее доигрывают.
+     * Вызывается до того, как прежняя версия отпущена: иначе между ними create упал бы на отпущенной версии.
+     * Фабрика записи не привязана к версии - фабрика, взятая раньше (например, турниром), дает текущую.
+     */
+    public void registerCustom(String aiName, DynamicCarAI ai) {
+        String id = CUSTOM_PREFIX + aiName;
+        customs.put(id, ai);
+        entries.put(id, new Entry(id, ai.getCustomAIName(), Kind.CUSTOM, ai.getClass().getSimpleName(),
+                ai.getVersion(), () -> newCustomInstance(id)));
+    }
+
+    public void unregisterCustom(String aiName) {
+        String id = CUSTOM_PREFIX + aiName;
+        entries.remove(id);
+        customs.remove(id);
+    }
+
+    /**
+     * Снимок реестра: сначала шаблонные, потом пользовательские, по именам
+     */
+    public List<Entry> getEntries() {
+        List<Entry> result = new ArrayList<>(entries.values());
+        result.sort(Comparator.comparing(Entry::kind).thenComparing(Entry::id));
+        return result;
+    }
+
+    public List<Entry> getEntries(Kind kind) {
+        return getEntries().stream().filter(entry -> entry.kind() == kind).toList();
+    }
+
+    /**
+     * Копия текущей версии; если версию успели заменить и отпустить, берется новая.
+     * AI удален или его версия отпущена без замены - IllegalStateException
+     */
+    private CarAI newCustomInstance(String id) {
+        while (true) {
+            DynamicCarAI current = customs.get(id);
+            if (current == null) {
+                throw new IllegalStateException("AI was removed: " + id);
+            }
+            try {
+                return current.newInstance();
+            } catch (IllegalStateException e) {
+                if (customs.get(id) == current) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static String templateId(Class<? extends CarAI> type) {
+        String name = type.getSimpleName();
+        if (name.endsWith("CarAI")) {
+            name = name.substring(0, name.length() - "CarAI".length());
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static CarAI instantiate(Class<? extends CarAI> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to instantiate " + type.getSimpleName(), e);
+        }
+    }
+}
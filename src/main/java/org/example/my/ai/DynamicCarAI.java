@@ -12,4 +12,12 @@ public interface DynamicCarAI extends CarAI {
     String getCustomAIName(); // Новый метод для получения имени
 
     boolean isLoaded(); // Проверка, загружен ли AI
+
+    CarAI newInstance(); // Новый независимый экземпляр загруженного AI (для параллельных матчей)
+
+    String getRegisteredName(); // Имя, под которым AI загружен в CustomAIManager
+
+    int getVersion(); // Номер загрузки под этим именем; у новой версии больше
+
+    void release(); // Матч больше не использует эту копию: старая версия может быть выгружена
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package org.example.my.ai;
+
+import org.example.my.model.Car;
+import org.example.my.model.CarAction;
+import org.example.my.model.Position;
+
+/**
+ * Позволяет дуэльному CarAI воевать в бою с несколькими танками:
+ * противником для него каждый тик считается ближайший живой враг
+ */
+public class NearestEnemyAdapter implements WorldAwareCarAI {
+
+    private final CarAI delegate;
+
+    public NearestEnemyAdapter(CarAI delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public CarAction decideAction(WorldView world) {
+        Car target = findNearestEnemy(world);
+        if (target == null) {
+            return new CarAction(CarAction.ActionType.IDLE);
+        }
+        return delegate.decideAction(world.self(), target, world.bulletList());
+    }
+
+    private Car findNearestEnemy(WorldView world) {
+        Position myPos = world.self().getPosition();
+        Car nearest = null;
+        double minDistanceSq = Double.MAX_VALUE;
+
+        for (Car enemy : world.enemies()) {
+            Position pos = enemy.getPosition();
+            double dx = pos.getX() - myPos.getX();
+            double dy = pos.getY() - myPos.getY();
+            double distanceSq = dx * dx + dy * dy;
+            if (distanceSq < minDistanceSq) {
+                minDistanceSq = distanceSq;
+                nearest = enemy;
+            }
+        }
+        return nearest;
+    }
+
+    public CarAI getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public int getShootingRange() {
+        return delegate.getShootingRange();
+    }
+
+    @Override
+    public int getMovementSpeed() {
+        return delegate.getMovementSpeed();
+    }
+
+    @Override
+    public int getFireRate() {
+        return delegate.getFireRate();
+    }
+
+    @Override
+    public String getAIName() {
+        return delegate.getAIName();
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.my.ai;
+
+import org.example.my.engine.SimulationClock;
+import org.example.my.model.Car;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Характеристики танка, вычисленные из очков AI (дальность, скорость, скорострельность).
+ * Считаются и проверяются один раз на класс AI - при регистрации или назначении,
+ * а не на каждом тике. Единственное место, где очки переводятся в параметры танка.
+ */
+public record TankProfile(int shootingRange, int movementSpeed, int fireRate,
+                          double maxSpeed, double acceleration,
+                          int bulletLifetimeTicks, int shootCooldownTicks) {
+
+    public static final int MAX_POINTS = 10;
+    public static final int MIN_STAT = 1;
+    public static final int MAX_STAT = 5;
+
+    /**
+     * Характеристики для AI с неправильной конфигурацией (очки не указаны)
+     */
+    public static final TankProfile DEFAULT = new TankProfile(0, 0, 0, 5.0, 0.2,
+            SimulationClock.millisToTicks(2000), SimulationClock.millisToTicks(1000));
+
+    // Очки - настройка класса AI, поэтому профиль один на класс
+    private static final Map<Class<?>, TankProfile> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Профиль AI из кэша; при первом обращении читает и проверяет очки.
+     * Неправильная конфигурация - IllegalStateException (в кэш не попадает).
+     */
+    public static TankProfile of(CarAI ai) {
+        TankProfile cached = CACHE.get(ai.getClass());
+        if (cached != null) {
+            return cached;
+        }
+        TankProfile profile = compile(ai);
+        CACHE.putIfAbsent(ai.getClass(), profile);
+        return profile;
+    }
+
+    /**
+     * Проверяет очки и переводит их в параметры танка
+     */
+    public static TankProfile compile(CarAI ai) {
+        int range = ai.getShootingRange();
+        int speed = ai.getMovementSpeed();
+        int fireRate = ai.getFireRate();
+
+        if (range < MIN_STAT || range > MAX_STAT || speed < MIN_STAT || speed > MAX_STAT
+                || fireRate < MIN_STAT || fireRate > MAX_STAT) {
+            throw new IllegalStateException(
+                    String.format("Invalid tank stats for AI '%s'! Stats must be between %d and %d. Got: Range=%d, Speed=%d, FireRate=%d",
+                            ai.getAIName(), MIN_STAT, MAX_STAT, range, speed, fireRate));
+        }
+
+        int total = range + speed + fireRate;
+        if (total > MAX_POINTS) {
+            throw new IllegalStateException(
+                    String.format("Too many points allocated for AI '%s'! Max %d, got %d (Range=%d, Speed=%d, FireRate=%d)",
+                            ai.getAIName(), MAX_POINTS, total, range, speed, fireRate));
+        }
+
+        // Скорость: 1.0 - 6.0, дальность (время жизни пули): 0.5 - 8.5 с, перезарядка: 2.5 - 0.1 с
+        return new TankProfile(range, speed, fireRate,
+                1.0 + (speed - 1) * 1.25,
+                0.05 + (speed - 1) * 0.2,
+                SimulationClock.millisToTicks(500 + (range - 1) * 2000L),
+                SimulationClock.millisToTicks(2500L - (fireRate - 1) * 600L));
+    }
+
+    public int totalPoints() {
+        return shootingRange + movementSpeed + fireRate;
+    }
+
+    public void applyTo(Car car) {
+        car.setMaxSpeed(maxSpeed);
+        car.setAcceleration(acceleration);
+        car.setBulletLifetimeTicks(bulletLifetimeTicks);
+        car.setShootCooldownTicks(shootCooldownTicks);
+    }
+
+    public String describe() {
+        return String.format("Range=%d→%d ticks, Speed=%d→%.1f, FireRate=%d→%d ticks",
+                shootingRange, bulletLifetimeTicks, movementSpeed, maxSpeed, fireRate, shootCooldownTicks);
+    }
+}
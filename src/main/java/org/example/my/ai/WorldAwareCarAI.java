@@ -0,0 +1,26 @@
+package org.example.my.ai;
+
+import org.example.my.model.Bullet;
+import org.example.my.model.Car;
+import org.example.my.model.CarAction;
+
+import java.util.Collection;
+
+/**
+ * AI для боев с любым числом танков: решение принимается по всей картине боя
+ */
+public interface WorldAwareCarAI extends CarAI {
+
+    /**
+     * Основной метод принятия решений
+     */
+    CarAction decideAction(WorldView world);
+
+    /**
+     * Дуэльный вызов из CarAI движок для таких AI не использует
+     */
+    @Override
+    default CarAction decideAction(Car myCar, Car opponentCar, Collection<Bullet> bullets) {
+        return new CarAction(CarAction.ActionType.IDLE);
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.my.ai;
+
+import org.example.my.model.Bullet;
+import org.example.my.model.BulletView;
+import org.example.my.model.Car;
+import org.example.my.model.GameMode;
+import org.example.my.model.WorldSnapshot;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Картина боя глазами одного танка: он сам, живые противники и союзники, все пули.
+ * Строится по неизменяемому снимку мира на начало тика; объекты Car и Bullet здесь -
+ * отсоединенные копии, их изменение не влияет на движок и на других AI.
+ */
+public interface WorldView {
+
+    /**
+     * Неизменяемый снимок мира, по которому построен этот вид
+     */
+    WorldSnapshot snapshot();
+
+    Car self();
+
+    // Номер своего танка (совпадает с номером владельца пули в bullets().owner(i))
+    int selfIndex();
+
+    int team();
+
+    /**
+     * Живые противники
+     */
+    List<Car> enemies();
+
+    /**
+     * Живые союзники (без себя); в режиме FFA всегда пуст
+     */
+    List<Car> allies();
+
+    int tankCount();
+
+    Car tank(int index);
+
+    int teamOf(int index);
+
+    BulletView bullets();
+
+    /**
+     * Те же пули в виде коллекции объектов (для кода, написанного под CarAI)
+     */
+    Collection<Bullet> bulletList();
+
+    long tick();
+
+    GameMode mode();
+}
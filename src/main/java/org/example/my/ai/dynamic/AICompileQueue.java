@@ -0,0 +1,174 @@
+package org.example.my.ai.dynamic;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Очередь компиляции пользовательских AI: загрузка возвращает номер задания сразу,
+ * javac работает в отдельном потоке, а не в потоке HTTP-запроса.
+ * Задания, накопившиеся в очереди (например, загрузки всего класса на занятии),
+ * компилируются вместе одной задачей javac (DynamicAICompiler.compileBatch).
+ * О ходе задания сообщается в STOMP-топик /topic/ai/compile/{id}; его же можно опрашивать по HTTP.
+ */
+@Component
+public class AICompileQueue {
+
+    // Ключ AI в пакете компиляции: одно имя может прийти в нескольких заданиях
+    private record JobAI(CompileJob job, String aiName) {
+    }
+
+    private final CustomAIManager aiManager;
+    private final DynamicAICompiler compiler;
+    private final SimpMessageSendingOperations messaging;
+    private final int batchSize;
+    private final int retainedJobs;
+
+    private final BlockingQueue<CompileJob> pending;
+    private final ExecutorService executor;
+    private final Map<String, CompileJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<String> jobOrder = new ConcurrentLinkedDeque<>();
+    private final AtomicLong jobIds = new AtomicLong();
+
+    public AICompileQueue(CustomAIManager aiManager,
+                          DynamicAICompiler compiler,
+                          SimpMessageSendingOperations messaging,
+                          @Value("${game.ai.compile-threads:1}") int threads,
+                          @Value("${game.ai.compile-queue-capacity:64}") int queueCapacity,
+                          @Value("${game.ai.compile-batch-size:32}") int batchSize,
+                          @Value("${game.ai.compile-jobs-retained:256}") int retainedJobs,
+                          @Value("${game.ai.compile-warmup:true}") boolean warmUp) {
+        this.aiManager = aiManager;
+        this.compiler = compiler;
+        this.messaging = messaging;
+        this.batchSize = batchSize;
+        this.retainedJobs = retainedJobs;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "ai-compile-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (warmUp) {
+            // Прогрев в фоне: старт приложения его не ждет, первая загрузка встанет в очередь за ним
+            executor.execute(compiler::warmUp);
+        }
+    }
+
+    /**
+     * Ставит AI в очередь; ключи - имена AI, значения - файлы (главный класс в первом).
+     * Очередь заполнена - RejectedExecutionException.
+     */
+    public CompileJob submit(Map<String, List<String>> sources) {
+        CompileJob job = new CompileJob(String.valueOf(jobIds.incrementAndGet()), new LinkedHashMap<>(sources));
+        jobs.put(job.getId(), job);
+        if (!pending.offer(job)) {
+            jobs.remove(job.getId());
+            throw new RejectedExecutionException("Compile queue is full (" + pending.size() + " jobs), try again later");
+        }
+        jobOrder.addLast(job.getId());
+        evictOldJobs();
+        executor.execute(this::drain);
+        return job;
+    }
+
+    public CompileJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    public int getQueuedJobs() {
+        return pending.size();
+    }
+
+    // Забирает из очереди все, что успело накопиться (до batchSize AI), и компилирует одной задачей
+    private void drain() {
+        List<CompileJob> batch = new ArrayList<>();
+        int ais = 0;
+        CompileJob job;
+        while (ais < batchSize && (job = pending.poll()) != null) {
+            batch.add(job);
+            ais += job.getSources().size();
+        }
+        if (batch.isEmpty()) {
+            // Задание уже забрал предыдущий проход
+            return;
+        }
+
+        Map<JobAI, List<String>> units = new LinkedHashMap<>();
+        for (CompileJob queued : batch) {
+            queued.started(ais);
+            publish(queued);
+            queued.getSources().forEach((aiName, files) -> units.put(new JobAI(queued, aiName), files));
+        }
+
+        try {
+            long start = System.nanoTime();
+            Map<JobAI, DynamicAICompiler.Result> results = compiler.compileBatch(units);
+            // Время пакета делится поровну между его AI
+            long nanosPerAI = (System.nanoTime() - start) / Math.max(1, units.size());
+
+            results.forEach((key, result) -> {
+                boolean loaded = aiManager.registerCompiled(key.aiName(), units.get(key), result, nanosPerAI);
+                String error = loaded ? null
+                        : result.error() != null ? result.error() : aiManager.getAIStatus(key.aiName());
+                key.job().addResult(key.aiName(), loaded, result.cached(), error);
+            });
+            System.out.printf("🛠️ Compiled %d AI(s) from %d upload(s) in %d ms%n",
+                    units.size(), batch.size(), nanosPerAI * units.size() / 1_000_000);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Compile job failed: " + e.getMessage());
+            units.keySet().forEach(key -> key.job().addResult(key.aiName(), false, false, e.toString()));
+        } finally {
+            for (CompileJob done : batch) {
+                done.finished();
+                publish(done);
+            }
+        }
+    }
+
+    private void publish(CompileJob job) {
+        try {
+            messaging.convertAndSend(job.getTopic(), job.describe());
+        } catch (MessagingException e) {
+            // Подписчиков может не быть; состояние задания доступно и по HTTP
+        }
+    }
+
+    // Завершенные задания хранятся ограниченно: старые забываются, ждущие и идущие пропускаются
+    private void evictOldJobs() {
+        Iterator<String> order = jobOrder.iterator();
+        while (jobOrder.size() > retainedJobs && order.hasNext()) {
+            String jobId = order.next();
+            CompileJob job = jobs.get(jobId);
+            if (job == null || job.getState() == CompileJob.State.DONE) {
+                order.remove();
+                jobs.remove(jobId);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
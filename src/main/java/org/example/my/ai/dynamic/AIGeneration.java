@@ -0,0 +1,72 @@
+package org.example.my.ai.dynamic;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Версия загруженного AI: один загрузчик классов на одну загрузку кода под одним именем.
+ * Ссылки считаются: одну держит регистрация в CustomAIManager (пока версия текущая),
+ * по одной - каждая копия AI в матче. Когда ссылок не осталось, версия закрывается
+ * и AIGenerations больше не держит ее загрузчик - классы выгружаются сборщиком мусора.
+ */
+public final class AIGeneration {
+
+    private final AIGenerations owner;
+    private final String aiName;
+    private final int version;
+    private final long loadedAt = System.currentTimeMillis();
+    private final AtomicInteger references = new AtomicInteger(1);
+    private volatile ClassLoader loader;
+
+    AIGeneration(AIGenerations owner, String aiName, int version, ClassLoader loader) {
+        this.owner = owner;
+        this.aiName = aiName;
+        this.version = version;
+        this.loader = loader;
+    }
+
+    /**
+     * Новая ссылка (копия для матча); false - версия уже закрыта
+     */
+    public boolean retain() {
+        while (true) {
+            int current = references.get();
+            if (current == 0) {
+                return false;
+            }
+            if (references.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Отпускает ссылку; последняя закрывает версию
+     */
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            ClassLoader closed = loader;
+            loader = null;
+            owner.closed(this, closed);
+        }
+    }
+
+    public String getAiName() {
+        return aiName;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public int getReferences() {
+        return references.get();
+    }
+
+    public boolean isClosed() {
+        return references.get() == 0;
+    }
+}
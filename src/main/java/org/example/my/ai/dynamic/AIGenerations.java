@@ -0,0 +1,139 @@
+package org.example.my.ai.dynamic;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Версии загрузчиков пользовательских AI. Открытые версии держатся здесь; закрытые
+ * (ни регистрации, ни матчей) - только слабой ссылкой, чтобы видеть, выгрузил ли их сборщик мусора.
+ * Гауги: открытые и ожидающие выгрузки загрузчики, выгруженные, а также метаспейс и число классов JVM -
+ * по ним видно, что повторные загрузки AI не копят классы.
+ */
+@Component
+public class AIGenerations implements MeterBinder {
+
+    private final Map<String, AtomicInteger> versions = new ConcurrentHashMap<>();
+    private final Set<AIGeneration> open = ConcurrentHashMap.newKeySet();
+    private final Set<Reference<ClassLoader>> closed = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<ClassLoader> collected = new ReferenceQueue<>();
+    private final LongAdder unloaded = new LongAdder();
+
+    private final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+    private final MemoryPoolMXBean metaspace = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getName().equals("Metaspace"))
+            .findFirst()
+            .orElse(null);
+
+    /**
+     * Новая версия AI с его загрузчиком; единственная ссылка - у регистрации
+     */
+    public AIGeneration open(String aiName, ClassLoader loader) {
+        int version = versions.computeIfAbsent(aiName, name -> new AtomicInteger()).incrementAndGet();
+        AIGeneration generation = new AIGeneration(this, aiName, version, loader);
+        open.add(generation);
+        return generation;
+    }
+
+    void closed(AIGeneration generation, ClassLoader loader) {
+        open.remove(generation);
+        if (loader != null) {
+            closed.add(new WeakReference<>(loader, collected));
+        }
+        System.out.printf("♻️ AI %s v%d released%n", generation.getAiName(), generation.getVersion());
+    }
+
+    // Загрузчики, которые сборщик мусора уже выгрузил
+    private void expunge() {
+        Reference<? extends ClassLoader> reference;
+        while ((reference = collected.poll()) != null) {
+            if (closed.remove(reference)) {
+                unloaded.increment();
+            }
+        }
+    }
+
+    public int getOpenLoaders() {
+        return open.size();
+    }
+
+    /**
+     * Закрытые загрузчики, которые еще не выгружены (ждут сборки мусора или на них осталась ссылка)
+     */
+    public int getPendingLoaders() {
+        expunge();
+        return closed.size();
+    }
+
+    public long getUnloadedLoaders() {
+        expunge();
+        return unloaded.sum();
+    }
+
+    public long getMetaspaceUsed() {
+        return metaspace != null ? metaspace.getUsage().getUsed() : -1;
+    }
+
+    public Map<String, Object> describe() {
+        List<Map<String, Object>> generations = new ArrayList<>();
+        open.stream()
+                .sorted(Comparator.comparing(AIGeneration::getAiName).thenComparing(AIGeneration::getVersion))
+                .forEach(generation -> {
+                    Map<String, Object> info = new LinkedHashMap<>();
+                    info.put("aiName", generation.getAiName());
+                    info.put("version", generation.getVersion());
+                    info.put("references", generation.getReferences());
+                    info.put("loadedAt", generation.getLoadedAt());
+                    generations.add(info);
+                });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("open", generations);
+        result.put("pendingUnload", getPendingLoaders());
+        result.put("unloaded", getUnloadedLoaders());
+        result.put("loadedClasses", classLoading.getLoadedClassCount());
+        result.put("unloadedClasses", classLoading.getUnloadedClassCount());
+        result.put("metaspaceBytes", getMetaspaceUsed());
+        return result;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("game.ai.loaders", this, AIGenerations::getOpenLoaders)
+                .description("Class loaders of custom AI versions")
+                .tag("state", "open")
+                .register(registry);
+        Gauge.builder("game.ai.loaders", this, AIGenerations::getPendingLoaders)
+                .description("Class loaders of custom AI versions")
+                .tag("state", "released")
+                .register(registry);
+        FunctionCounter.builder("game.ai.loaders.unloaded", this, AIGenerations::getUnloadedLoaders)
+                .description("Released custom AI class loaders collected by the GC")
+                .register(registry);
+        Gauge.builder("game.ai.classes.loaded", classLoading, ClassLoadingMXBean::getLoadedClassCount)
+                .description("Classes currently loaded by the JVM, custom AIs included")
+                .register(registry);
+        Gauge.builder("game.ai.metaspace.used", this, AIGenerations::getMetaspaceUsed)
+                .description("Metaspace used by the JVM, where custom AI classes live")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
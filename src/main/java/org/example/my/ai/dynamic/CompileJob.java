@@ -0,0 +1,88 @@
+package org.example.my.ai.dynamic;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Задание очереди компиляции: один или несколько AI, загруженных одним запросом.
+ * Меняется потоком очереди, читается HTTP-запросами - поэтому методы синхронизированы.
+ */
+public class CompileJob {
+
+    public enum State {
+        QUEUED, COMPILING, DONE
+    }
+
+    private final String id;
+    // Файлы каждого AI; первый - с главным классом
+    private final Map<String, List<String>> sources;
+    private final long submittedAt = System.currentTimeMillis();
+    private final Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+    private State state = State.QUEUED;
+    private long startedAt;
+    private long finishedAt;
+    private int batchSize;
+
+    CompileJob(String id, Map<String, List<String>> sources) {
+        this.id = id;
+        this.sources = sources;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTopic() {
+        return "/topic/ai/compile/" + id;
+    }
+
+    Map<String, List<String>> getSources() {
+        return sources;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    synchronized void started(int batchSize) {
+        this.state = State.COMPILING;
+        this.startedAt = System.currentTimeMillis();
+        this.batchSize = batchSize;
+    }
+
+    synchronized void addResult(String aiName, boolean loaded, boolean cached, String error) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("status", loaded ? "success" : "error");
+        result.put("cached", cached);
+        if (error != null) {
+            result.put("error", error);
+        }
+        results.put(aiName, result);
+    }
+
+    synchronized void finished() {
+        this.state = State.DONE;
+        this.finishedAt = System.currentTimeMillis();
+    }
+
+    public synchronized Map<String, Object> describe() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("jobId", id);
+        info.put("state", state.name());
+        info.put("topic", getTopic());
+        info.put("aiNames", new ArrayList<>(sources.keySet()));
+        info.put("submittedAt", submittedAt);
+        if (state != State.QUEUED) {
+            info.put("queuedMillis", startedAt - submittedAt);
+            // Сколько AI (из всех заданий в очереди) компилировалось вместе с этим
+            info.put("batchSize", batchSize);
+        }
+        if (state == State.DONE) {
+            info.put("compileMillis", finishedAt - startedAt);
+            info.put("results", new LinkedHashMap<>(results));
+        }
+        return info;
+    }
+}
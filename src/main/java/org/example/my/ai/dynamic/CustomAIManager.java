@@ -1,29 +1,90 @@
 package org.example.my.ai.dynamic;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.my.ai.AIRegistry;
 import org.example.my.ai.CarAI;
 import org.example.my.ai.DynamicCarAI;
+import org.example.my.ai.TankProfile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class CustomAIManager {
 
-    private final Map<String, DynamicCarAI> customAIs = new HashMap<>();
+    // Регистрирует поток очереди компиляции, читают HTTP-запросы и турниры
+    private final Map<String, DynamicCarAI> customAIs = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DynamicAICompiler compiler;
+
+    @Autowired
+    private AIGenerations generations;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private AIRegistry aiRegistry;
 
     public boolean registerCustomAI(String aiName, String javaCode) {
         try {
-            DynamicCarAI dynamicAI = new DynamicCarAIImpl();
-            dynamicAI.setCode(javaCode);
+            long start = System.nanoTime();
+            DynamicAICompiler.Result result = compiler.compile(javaCode);
+            return registerCompiled(aiName, List.of(javaCode), result, System.nanoTime() - start);
+        } catch (Exception e) {
+            System.err.println("Failed to register AI: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Регистрирует уже скомпилированный AI (очередь компиляции собирает несколько AI в одну задачу javac);
+     * compileNanos - время компиляции, приходящееся на этот AI
+     */
+    public boolean registerCompiled(String aiName, List<String> sources, DynamicAICompiler.Result result, long compileNanos) {
+        try {
+            DynamicCarAIImpl dynamicAI = new DynamicCarAIImpl(compiler);
+            dynamicAI.setSources(sources);
+
+            long start = System.nanoTime();
+            boolean compiled = dynamicAI.load(result);
+            Timer.builder("game.ai.compile")
+                    .description("Time to compile and load a custom AI")
+                    .tag("outcome", compiled ? "success" : "failure")
+                    .tag("cache", dynamicAI.isCompiledFromCache() ? "hit" : "miss")
+                    .register(meterRegistry)
+                    .record(compileNanos + System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
-            if (dynamicAI.compileAndLoad()) {
-                customAIs.put(aiName, dynamicAI);
+            if (compiled) {
+                // Характеристики проверяем сразу при регистрации; дальше матчи берут их из кэша
+                try {
+                    TankProfile.of(dynamicAI);
+                } catch (IllegalStateException e) {
+                    System.err.println("Invalid tank stats, AI will play with defaults: " + e.getMessage());
+                }
+                dynamicAI.attach(generations.open(aiName, dynamicAI.getClassLoader()));
+                // Сначала реестр переходит на новую версию, потом прежняя отпускается
+                aiRegistry.registerCustom(aiName, dynamicAI);
+                replace(aiName, dynamicAI);
+                // Матчи с прежней версией подменят ее на новую между тиками
+                events.publishEvent(new CustomAIUpdatedEvent(aiName, dynamicAI));
                 return true;
             } else {
                 System.err.println("Compilation failed: " + dynamicAI.getCompilationError());
-                // Все равно сохраняем, но помечаем как нерабочий
-                customAIs.put(aiName, dynamicAI);
+                // Все равно сохраняем, но помечаем как нерабочий; в бой его поставить нельзя
+                aiRegistry.unregisterCustom(aiName);
+                replace(aiName, dynamicAI);
                 return false;
             }
         } catch (Exception e) {
@@ -64,7 +125,20 @@ public class CustomAIManager {
     }
 
     public boolean removeCustomAI(String aiName) {
-        return customAIs.remove(aiName) != null;
+        aiRegistry.unregisterCustom(aiName);
+        DynamicCarAI removed = customAIs.remove(aiName);
+        if (removed instanceof DynamicCarAIImpl previous) {
+            previous.retire();
+        }
+        return removed != null;
+    }
+
+    // Прежняя версия под этим именем перестает быть текущей; матчи, которые ее играют, доигрывают
+    private void replace(String aiName, DynamicCarAIImpl dynamicAI) {
+        DynamicCarAI previous = customAIs.put(aiName, dynamicAI);
+        if (previous instanceof DynamicCarAIImpl retired && previous != dynamicAI) {
+            retired.retire();
+        }
     }
 
     public String getAIStatus(String aiName) {
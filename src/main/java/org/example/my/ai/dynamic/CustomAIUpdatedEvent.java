@@ -0,0 +1,9 @@
+package org.example.my.ai.dynamic;
+
+import org.example.my.ai.DynamicCarAI;
+
+/**
+ * Под именем aiName загружена новая рабочая версия AI (событие Spring; его слушает MatchRegistry)
+ */
+public record CustomAIUpdatedEvent(String aiName, DynamicCarAI ai) {
+}
@@ -0,0 +1,571 @@
+package org.example.my.ai.dynamic;
+
+import org.example.my.ai.CarAI;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Компилирует код пользовательских AI целиком в памяти: исходник - строка, байт-код
+ * собирается в массивы и загружается через MemoryClassLoader, на диск ничего не пишется.
+ * Классы игры (org.example.my) javac получает через загрузчик приложения, поэтому компиляция
+ * работает и из исполняемого jar Spring Boot, где их нет в java.class.path.
+ * Байт-код кэшируется по SHA-256 исходника: повторная загрузка того же кода javac не вызывает.
+ */
+@Component
+public class DynamicAICompiler {
+
+    /**
+     * Скомпилированный AI: имя главного класса и байт-код всех классов исходника (с вложенными)
+     */
+    public record CompiledAI(String className, Map<String, byte[]> classes) {
+
+        /**
+         * Загружает главный класс в новом загрузчике: у каждой загрузки свои статические поля
+         */
+        public Class<?> load() throws ClassNotFoundException {
+            return new MemoryClassLoader(classes, CarAI.class.getClassLoader()).loadClass(className);
+        }
+    }
+
+    /**
+     * Итог компиляции: compiled или error; cached - javac не вызывался
+     */
+    public record Result(CompiledAI compiled, String error, boolean cached) {
+    }
+
+    // Пакет игры: его классы javac ищет через загрузчик приложения
+    private static final String GAME_PACKAGE = "org.example.my";
+    private static final String DEFAULT_CLASS_NAME = "UserCarAI";
+    private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final Pattern PUBLIC_CLASS = Pattern.compile("public\\s+(?:final\\s+|abstract\\s+)*class\\s+(\\w+)");
+    private static final Pattern ANY_CLASS = Pattern.compile("\\bclass\\s+(\\w+)");
+
+    private static final String WARM_UP_SOURCE = """
+            import org.example.my.model.Bullet;
+            import org.example.my.model.Car;
+            import org.example.my.model.CarAction;
+            import java.util.Collection;
+
+            public class WarmUpCarAI implements org.example.my.ai.CarAI {
+                public int getShootingRange() { return 3; }
+                public int getMovementSpeed() { return 3; }
+                public int getFireRate() { return 4; }
+                public CarAction decideAction(Car myCar, Car opponentCar, Collection<Bullet> bullets) {
+                    return new CarAction(CarAction.ActionType.IDLE);
+                }
+                public String getAIName() { return "Warm-up"; }
+            }
+            """;
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    // Стандартный менеджер файлов держит индексы модулей JDK; переиспользуется, поэтому компиляции идут по одной
+    private StandardJavaFileManager standardFileManager;
+
+    private final Map<String, CompiledAI> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DynamicAICompiler(@Value("${game.ai.compile-cache-size:256}") int cacheSize) {
+        // Самые давно не использованные записи вытесняются
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledAI> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Компилирует исходник или берет байт-код из кэша
+     */
+    public Result compile(String source) {
+        return compile(List.of(source));
+    }
+
+    /**
+     * AI из нескольких файлов: главный класс - public class первого файла
+     */
+    public Result compile(List<String> sources) {
+        return compileBatch(Map.of("", sources)).get("");
+    }
+
+    /**
+     * Компилирует несколько AI одной задачей javac. Ключи - любые (имя AI, задание очереди).
+     * AI с совпадающими именами классов (у всех шаблонных - UserCarAI) попадают в разные задачи.
+     * Ошибка в одном AI не мешает остальным: они компилируются повторно без него.
+     */
+    public <K> Map<K, Result> compileBatch(Map<K, List<String>> batch) {
+        Map<K, Result> results = new LinkedHashMap<>();
+        Map<K, Unit> unitsByKey = new LinkedHashMap<>();
+        // Одинаковый код в одном пакете компилируется один раз
+        Map<String, Unit> pending = new LinkedHashMap<>();
+
+        batch.forEach((key, sources) -> {
+            if (sources == null || sources.isEmpty() || sources.stream().anyMatch(s -> s == null || s.isBlank())) {
+                results.put(key, new Result(null, "AI code is empty", false));
+                return;
+            }
+            String hash = sha256(sources);
+            CompiledAI cached = cache.get(hash);
+            if (cached != null) {
+                hits.increment();
+                results.put(key, new Result(cached, null, true));
+                return;
+            }
+            misses.increment();
+            unitsByKey.put(key, pending.computeIfAbsent(hash, h -> new Unit(h, sources)));
+        });
+
+        if (!pending.isEmpty()) {
+            if (compiler == null) {
+                pending.values().forEach(unit -> unit.fail("Java compiler not available. Make sure you're running with JDK, not JRE."));
+            } else {
+                for (List<Unit> round : rounds(pending.values())) {
+                    synchronized (this) {
+                        compileRound(round);
+                    }
+                }
+            }
+            for (Unit unit : pending.values()) {
+                if (unit.compiled() != null) {
+                    cache.put(unit.hash, unit.compiled());
+                }
+            }
+        }
+
+        Map<K, Result> ordered = new LinkedHashMap<>();
+        for (K key : batch.keySet()) {
+            Unit unit = unitsByKey.get(key);
+            ordered.put(key, unit != null ? new Result(unit.compiled(), unit.error(), false) : results.get(key));
+        }
+        return ordered;
+    }
+
+    /**
+     * Прогревает javac и стандартный менеджер файлов (классы компилятора, индексы JDK и classpath),
+     * чтобы первая загрузка после старта не ждала их. Результат не кэшируется.
+     */
+    public void warmUp() {
+        if (compiler == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        Unit unit = new Unit("", List.of(WARM_UP_SOURCE));
+        synchronized (this) {
+            compileRound(List.of(unit));
+        }
+        System.out.printf("🔥 Java compiler warmed up in %d ms%s%n", (System.nanoTime() - start) / 1_000_000,
+                unit.error() != null ? ": " + unit.error() : "");
+    }
+
+    // Пакеты javac без совпадающих имен классов: иначе javac сообщит о дубликате
+    private static List<List<Unit>> rounds(Collection<Unit> units) {
+        List<List<Unit>> rounds = new ArrayList<>();
+        List<Set<String>> names = new ArrayList<>();
+        for (Unit unit : units) {
+            int round = 0;
+            while (round < rounds.size() && !Collections.disjoint(names.get(round), unit.classNames)) {
+                round++;
+            }
+            if (round == rounds.size()) {
+                rounds.add(new ArrayList<>());
+                names.add(new HashSet<>());
+            }
+            rounds.get(round).add(unit);
+            names.get(round).addAll(unit.classNames);
+        }
+        return rounds;
+    }
+
+    private void compileRound(List<Unit> round) {
+        List<Unit> todo = round.stream().filter(unit -> unit.error() == null).toList();
+        while (!todo.isEmpty()) {
+            if (runJavac(todo)) {
+                return;
+            }
+            // При ошибках javac не пишет классы ни одного файла задачи: остальные компилируем заново
+            List<Unit> clean = todo.stream().filter(unit -> unit.error() == null).toList();
+            if (clean.size() == todo.size()) {
+                clean.forEach(unit -> unit.fail("Compilation failed"));
+                return;
+            }
+            clean.forEach(unit -> unit.classes.clear());
+            todo = clean;
+        }
+    }
+
+    private boolean runJavac(List<Unit> units) {
+        try {
+            if (standardFileManager == null) {
+                standardFileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+            }
+            Map<JavaFileObject, Unit> owners = new HashMap<>();
+            List<JavaFileObject> files = new ArrayList<>();
+            for (Unit unit : units) {
+                for (SourceFile file : unit.files) {
+                    owners.put(file, unit);
+                    files.add(file);
+                }
+            }
+            MemoryFileManager fileManager = new MemoryFileManager(standardFileManager, CarAI.class.getClassLoader(), owners);
+
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            boolean success = compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    // Процессоры аннотаций из classpath (Lombok) к пользовательскому коду не применяются
+                    List.of("-proc:none"),
+                    null,
+                    files
+            ).call();
+
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() != Diagnostic.Kind.ERROR) {
+                    continue;
+                }
+                Unit owner = owners.get(diagnostic.getSource());
+                if (owner != null) {
+                    owner.addError(format(diagnostic));
+                } else {
+                    units.forEach(unit -> unit.addError(format(diagnostic)));
+                }
+            }
+            if (success) {
+                for (Unit unit : units) {
+                    if (!unit.classes.containsKey(unit.className)) {
+                        unit.fail("Class " + unit.className + " not found in compiled code");
+                    }
+                }
+            }
+            return success;
+        } catch (RuntimeException e) {
+            units.forEach(unit -> unit.fail("Compilation failed: " + e.getMessage()));
+            return true;
+        }
+    }
+
+    // Как печатает javac: файл:строка: error: текст, строка исходника и указатель на позицию
+    private static String format(Diagnostic<? extends JavaFileObject> diagnostic) {
+        StringBuilder text = new StringBuilder();
+        JavaFileObject source = diagnostic.getSource();
+        if (source != null) {
+            text.append(source.getName()).append(':').append(diagnostic.getLineNumber()).append(": ");
+        }
+        text.append("error: ").append(diagnostic.getMessage(Locale.ROOT)).append('\n');
+
+        if (source instanceof SourceFile file && diagnostic.getLineNumber() > 0) {
+            String[] lines = file.source.split("\n", -1);
+            int line = (int) diagnostic.getLineNumber() - 1;
+            if (line < lines.length) {
+                text.append(lines[line].stripTrailing()).append('\n');
+                if (diagnostic.getColumnNumber() > 0) {
+                    text.append(" ".repeat((int) diagnostic.getColumnNumber() - 1)).append("^\n");
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Полное имя главного класса: пакет и первый public class исходника (javac требует,
+     * чтобы имя файла совпадало с ним). Без объявления класса - UserCarAI.
+     */
+    static String className(String source) {
+        Matcher publicClass = PUBLIC_CLASS.matcher(source);
+        Matcher anyClass = ANY_CLASS.matcher(source);
+        String simpleName = publicClass.find() ? publicClass.group(1)
+                : anyClass.find() ? anyClass.group(1) : DEFAULT_CLASS_NAME;
+
+        Matcher packageName = PACKAGE.matcher(source);
+        return packageName.find() ? packageName.group(1) + "." + simpleName : simpleName;
+    }
+
+    /**
+     * Имена всех классов исходника (с пакетом) - чтобы не компилировать совпадающие вместе
+     */
+    static Set<String> classNames(String source) {
+        Matcher packageName = PACKAGE.matcher(source);
+        String prefix = packageName.find() ? packageName.group(1) + "." : "";
+        Set<String> names = new HashSet<>();
+        Matcher anyClass = ANY_CLASS.matcher(source);
+        while (anyClass.find()) {
+            names.add(prefix + anyClass.group(1));
+        }
+        names.add(className(source));
+        return names;
+    }
+
+    static String sha256(List<String> sources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // Для одного файла хэш - это хэш его текста; файлы разделяются нулевым байтом
+            for (int i = 0; i < sources.size(); i++) {
+                if (i > 0) {
+                    digest.update((byte) 0);
+                }
+                digest.update(sources.get(i).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    public long getCacheHits() {
+        return hits.sum();
+    }
+
+    public long getCacheMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Один AI в пакете компиляции: его файлы, байт-код и ошибки
+     */
+    private static final class Unit {
+        private final String hash;
+        private final List<SourceFile> files = new ArrayList<>();
+        private final String className;
+        private final Set<String> classNames = new HashSet<>();
+        private final Map<String, byte[]> classes = new LinkedHashMap<>();
+        private StringBuilder errors;
+        private CompiledAI compiled;
+
+        Unit(String hash, List<String> sources) {
+            this.hash = hash;
+            this.className = className(sources.get(0));
+            for (String source : sources) {
+                String name = className(source);
+                if (files.stream().anyMatch(file -> file.className.equals(name))) {
+                    fail("Duplicate class " + name);
+                }
+                files.add(new SourceFile(name, source));
+                classNames.addAll(classNames(source));
+            }
+        }
+
+        void addError(String error) {
+            if (errors == null) {
+                errors = new StringBuilder();
+            }
+            errors.append(error);
+        }
+
+        void fail(String error) {
+            if (errors == null) {
+                addError(error);
+            }
+        }
+
+        String error() {
+            return errors != null ? errors.toString() : null;
+        }
+
+        CompiledAI compiled() {
+            if (compiled == null && errors == null && classes.containsKey(className)) {
+                compiled = new CompiledAI(className, Map.copyOf(classes));
+            }
+            return compiled;
+        }
+    }
+
+    /**
+     * Исходник из строки
+     */
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String className;
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.className = className;
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    /**
+     * Байт-код одного класса, который пишет javac
+     */
+    private static final class ClassOutput extends SimpleJavaFileObject {
+        private final String className;
+        private final Map<String, byte[]> classes;
+
+        ClassOutput(String className, Map<String, byte[]> classes) {
+            super(URI.create("mem:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.className = className;
+            this.classes = classes;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    classes.put(className, toByteArray());
+                }
+            };
+        }
+    }
+
+    /**
+     * Класс игры, найденный через загрузчик приложения (каталог классов или вложенный jar)
+     */
+    private static final class ApplicationClass extends SimpleJavaFileObject {
+        private final String binaryName;
+        private final URL url;
+
+        ApplicationClass(String binaryName, URL url) {
+            // URI вложенного jar ("jar:nested:...") непрозрачный, без пути, а javac берет имя файла из пути
+            super(URI.create("app:///" + binaryName.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.binaryName = binaryName;
+            this.url = url;
+        }
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+            return url.openStream();
+        }
+    }
+
+    /**
+     * Классы пишутся в память (к AI, из файла которого они получены); классы игры,
+     * которых нет в стандартном classpath, берутся из загрузчика
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final ClassLoader applicationLoader;
+        private final Map<JavaFileObject, Unit> owners;
+
+        MemoryFileManager(StandardJavaFileManager fileManager, ClassLoader applicationLoader,
+                          Map<JavaFileObject, Unit> owners) {
+            super(fileManager);
+            this.applicationLoader = applicationLoader;
+            this.owners = owners;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            // javac передает исходный файл класса как sibling
+            Unit owner = owners.get(sibling);
+            if (owner == null) {
+                owner = owners.values().iterator().next();
+            }
+            return new ClassOutput(className, owner.classes);
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(Location location, String packageName, Set<JavaFileObject.Kind> kinds,
+                                             boolean recurse) throws IOException {
+            Iterable<JavaFileObject> standard = super.list(location, packageName, kinds, recurse);
+            if (location != StandardLocation.CLASS_PATH || !kinds.contains(JavaFileObject.Kind.CLASS)
+                    || !(packageName.equals(GAME_PACKAGE) || packageName.startsWith(GAME_PACKAGE + "."))
+                    || standard.iterator().hasNext()) {
+                return standard;
+            }
+            return listApplicationClasses(packageName);
+        }
+
+        @Override
+        public String inferBinaryName(Location location, JavaFileObject file) {
+            if (file instanceof ApplicationClass applicationClass) {
+                return applicationClass.binaryName;
+            }
+            return super.inferBinaryName(location, file);
+        }
+
+        private List<JavaFileObject> listApplicationClasses(String packageName) throws IOException {
+            String path = packageName.replace('.', '/');
+            List<JavaFileObject> result = new ArrayList<>();
+            Enumeration<URL> roots = applicationLoader.getResources(path);
+            try {
+                while (roots.hasMoreElements()) {
+                    URL root = roots.nextElement();
+                    String base = root.toString().endsWith("/") ? root.toString() : root + "/";
+                    for (String simpleName : classFiles(root, path)) {
+                        String binaryName = packageName + "." + simpleName.substring(0, simpleName.length() - ".class".length());
+                        result.add(new ApplicationClass(binaryName, new URL(new URL(base), simpleName)));
+                    }
+                }
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+            return result;
+        }
+
+        // Имена .class файлов прямо в каталоге пакета
+        private static List<String> classFiles(URL root, String path) throws IOException, URISyntaxException {
+            List<String> names = new ArrayList<>();
+            if ("file".equals(root.getProtocol())) {
+                File[] files = new File(root.toURI()).listFiles((dir, name) -> name.endsWith(".class"));
+                if (files != null) {
+                    for (File file : files) {
+                        names.add(file.getName());
+                    }
+                }
+            } else if (root.openConnection() instanceof JarURLConnection connection) {
+                // Jar закэширован загрузчиком классов, закрывать его нельзя
+                JarFile jar = connection.getJarFile();
+                String prefix = connection.getEntryName() != null ? connection.getEntryName() : path;
+                prefix = prefix.endsWith("/") ? prefix : prefix + "/";
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (name.startsWith(prefix) && name.endsWith(".class") && name.indexOf('/', prefix.length()) < 0) {
+                        names.add(name.substring(prefix.length()));
+                    }
+                }
+            }
+            return names;
+        }
+    }
+}
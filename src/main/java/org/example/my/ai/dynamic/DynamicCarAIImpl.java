@@ -2,38 +2,53 @@ package org.example.my.ai.dynamic;
 
 import org.example.my.ai.CarAI;
 import org.example.my.ai.DynamicCarAI;
+import org.example.my.ai.NearestEnemyAdapter;
+import org.example.my.ai.WorldAwareCarAI;
+import org.example.my.ai.WorldView;
 import org.example.my.model.Bullet;
 import org.example.my.model.Car;
 import org.example.my.model.CarAction;
 
-import javax.tools.JavaCompiler;
-import javax.tools.StandardJavaFileManager;
-import javax.tools.StandardLocation;
-import javax.tools.ToolProvider;
-import java.io.StringWriter;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public class DynamicCarAIImpl implements DynamicCarAI {
+/**
+ * Обертка загруженного AI. Для движка она всегда WorldAwareCarAI: AI, написанный под бой
+ * с несколькими танками, получает всю картину боя, а дуэльный - ближайшего врага в противники.
+ */
+public class DynamicCarAIImpl implements DynamicCarAI, WorldAwareCarAI {
 
     private String aiCode;
+    // Все файлы AI; aiCode - первый, с главным классом
+    private List<String> sources = List.of();
     private CarAI loadedAI;
     private String compilationError;
-    private final Path tempDir;
+    private final DynamicAICompiler compiler;
+    private boolean compiledFromCache;
+    // Версия загрузчика; копия для матча держит на нее ссылку до release()
+    private AIGeneration generation;
+    private final boolean matchCopy;
+    private final AtomicBoolean released = new AtomicBoolean();
     private String customName; // Храним имя отдельно
+    // Для дуэльного AI: противник - ближайший живой враг
+    private final NearestEnemyAdapter nearestEnemy = new NearestEnemyAdapter(this);
 
-    public DynamicCarAIImpl() {
-        try {
-            tempDir = Files.createTempDirectory("car_ai");
-            tempDir.toFile().deleteOnExit();
-            this.customName = "Dynamic AI (Not Loaded)";
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to create temp directory", e);
-        }
+    public DynamicCarAIImpl(DynamicAICompiler compiler) {
+        this.compiler = compiler;
+        this.matchCopy = false;
+        this.customName = "Dynamic AI (Not Loaded)";
+    }
+
+    // Копия для отдельного матча: тот же код и класс, но свой экземпляр пользовательского AI
+    private DynamicCarAIImpl(DynamicCarAIImpl source, CarAI instance) {
+        this.compiler = source.compiler;
+        this.generation = source.generation;
+        this.matchCopy = true;
+        this.aiCode = source.aiCode;
+        this.sources = source.sources;
+        this.customName = source.customName;
+        this.loadedAI = instance;
     }
 
     @Override
@@ -73,6 +88,22 @@ public class DynamicCarAIImpl implements DynamicCarAI {
         return new CarAction(CarAction.ActionType.IDLE);
     }
 
+    @Override
+    public CarAction decideAction(WorldView world) {
+        if (!(loadedAI instanceof WorldAwareCarAI worldAware)) {
+            return nearestEnemy.decideAction(world);
+        }
+        if (!world.self().isAlive()) {
+            return new CarAction(CarAction.ActionType.IDLE);
+        }
+        try {
+            return worldAware.decideAction(world);
+        } catch (Exception e) {
+            // Fallback to default behavior if custom AI fails
+            return new CarAction(CarAction.ActionType.IDLE);
+        }
+    }
+
     @Override
     public String getAIName() {
         if (loadedAI != null) {
@@ -95,6 +126,63 @@ public class DynamicCarAIImpl implements DynamicCarAI {
         return loadedAI != null;
     }
 
+    @Override
+    public CarAI newInstance() {
+        if (loadedAI == null) {
+            throw new IllegalStateException("AI is not loaded: " + customName);
+        }
+        if (generation != null && !generation.retain()) {
+            throw new IllegalStateException("AI version was replaced: " + customName);
+        }
+        try {
+            CarAI instance = loadedAI.getClass().getDeclaredConstructor().newInstance();
+            return new DynamicCarAIImpl(this, instance);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            if (generation != null) {
+                generation.release();
+            }
+            throw new IllegalStateException("Failed to instantiate " + customName + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getRegisteredName() {
+        return generation != null ? generation.getAiName() : null;
+    }
+
+    @Override
+    public int getVersion() {
+        return generation != null ? generation.getVersion() : 0;
+    }
+
+    @Override
+    public void release() {
+        // Ссылку регистрации отпускает CustomAIManager (retire), копия - свою, один раз
+        if (matchCopy && generation != null && released.compareAndSet(false, true)) {
+            generation.release();
+        }
+    }
+
+    /**
+     * Регистрация в CustomAIManager: новая версия загрузчика под этим именем
+     */
+    void attach(AIGeneration generation) {
+        this.generation = generation;
+    }
+
+    /**
+     * Версия больше не текущая (перезагружена или удалена); выгрузится, когда ее отпустят все матчи
+     */
+    void retire() {
+        if (!matchCopy && generation != null && released.compareAndSet(false, true)) {
+            generation.release();
+        }
+    }
+
+    ClassLoader getClassLoader() {
+        return loadedAI != null ? loadedAI.getClass().getClassLoader() : null;
+    }
+
     @Override
     public String getCode() {
         return aiCode;
@@ -102,10 +190,18 @@ public class DynamicCarAIImpl implements DynamicCarAI {
 
     @Override
     public void setCode(String code) {
-        this.aiCode = code;
+        setSources(code != null ? List.of(code) : List.of());
+    }
+
+    /**
+     * Код AI из нескольких файлов: главный класс - в первом
+     */
+    public void setSources(List<String> sources) {
+        this.sources = List.copyOf(sources);
+        this.aiCode = sources.isEmpty() ? null : sources.get(0);
         this.compilationError = null;
         // Пытаемся извлечь имя из кода
-        this.customName = extractAINameFromCode(code);
+        this.customName = extractAINameFromCode(aiCode);
     }
 
     @Override
@@ -115,42 +211,28 @@ public class DynamicCarAIImpl implements DynamicCarAI {
             return false;
         }
 
-        try {
-            // Create Java file
-            Path javaFile = tempDir.resolve("UserCarAI.java");
-            Files.write(javaFile, aiCode.getBytes());
-
-            // Compile
-            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-            if (compiler == null) {
-                compilationError = "Java compiler not available. Make sure you're running with JDK, not JRE.";
-                return false;
-            }
-
-            StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
-            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(tempDir.toFile()));
-
-            StringWriter errorWriter = new StringWriter();
-            boolean success = compiler.getTask(
-                    errorWriter,
-                    fileManager,
-                    null,
-                    null,
-                    null,
-                    fileManager.getJavaFileObjects(javaFile.toFile())
-            ).call();
+        return load(compiler.compile(sources));
+    }
 
-            fileManager.close();
+    /**
+     * Загружает AI из готового результата компиляции (пакетная компиляция в AICompileQueue)
+     */
+    public boolean load(DynamicAICompiler.Result result) {
+        compiledFromCache = result.cached();
+        if (result.error() != null) {
+            compilationError = result.error();
+            loadedAI = null;
+            return false;
+        }
 
-            if (!success) {
-                compilationError = errorWriter.toString();
+        try {
+            // Свой загрузчик на каждую загрузку, даже если байт-код взят из кэша
+            Class<?> aiClass = result.compiled().load();
+            if (!CarAI.class.isAssignableFrom(aiClass)) {
+                compilationError = "Class " + aiClass.getName() + " does not implement CarAI";
                 loadedAI = null;
                 return false;
             }
-
-            // Load class
-            URLClassLoader classLoader = new URLClassLoader(new URL[]{tempDir.toUri().toURL()});
-            Class<?> aiClass = classLoader.loadClass("UserCarAI");
             loadedAI = (CarAI) aiClass.getDeclaredConstructor().newInstance();
 
             // Обновляем имя после успешной загрузки
@@ -158,13 +240,20 @@ public class DynamicCarAIImpl implements DynamicCarAI {
             compilationError = null;
             return true;
 
-        } catch (Exception e) {
-            compilationError = "Compilation/Loading failed: " + e.getMessage();
+        } catch (Exception | LinkageError e) {
+            compilationError = "Loading failed: " + e;
             loadedAI = null;
             return false;
         }
     }
 
+    /**
+     * Байт-код последней компиляции взят из кэша, javac не вызывался
+     */
+    public boolean isCompiledFromCache() {
+        return compiledFromCache;
+    }
+
     @Override
     public String getCompilationError() {
         return compilationError;
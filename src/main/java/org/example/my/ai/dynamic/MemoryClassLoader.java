@@ -0,0 +1,26 @@
+package org.example.my.ai.dynamic;
+
+import java.util.Map;
+
+/**
+ * Загружает классы пользовательского AI из байт-кода в памяти. Родитель - загрузчик приложения,
+ * поэтому CarAI и модели игры у AI те же, что у движка (в том числе в исполняемом jar).
+ */
+class MemoryClassLoader extends ClassLoader {
+
+    private final Map<String, byte[]> classes;
+
+    MemoryClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+        super(parent);
+        this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = classes.get(name);
+        if (bytes == null) {
+            throw new ClassNotFoundException(name);
+        }
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
@@ -34,9 +34,9 @@ public abstract class BaseCarAI implements CarAI {
     protected final double getDistanceToEnemy(Car myCar, Car enemyCar) {
         Position myPos = myCar.getPosition();
         Position enemyPos = enemyCar.getPosition();
-        return Math.sqrt(
-                Math.pow(myPos.getX() - enemyPos.getX(), 2) +
-                        Math.pow(myPos.getY() - enemyPos.getY(), 2)
+        return StrictMath.sqrt(
+                StrictMath.pow(myPos.getX() - enemyPos.getX(), 2) +
+                        StrictMath.pow(myPos.getY() - enemyPos.getY(), 2)
         );
     }
 
@@ -45,7 +45,7 @@ public abstract class BaseCarAI implements CarAI {
         Position enemyPos = enemyCar.getPosition();
         double dx = enemyPos.getX() - myPos.getX();
         double dy = enemyPos.getY() - myPos.getY();
-        return Math.toDegrees(Math.atan2(dy, dx));
+        return StrictMath.toDegrees(StrictMath.atan2(dy, dx));
     }
 
     protected final double getAngleDifference(Car myCar, Car enemyCar) {
@@ -89,7 +89,7 @@ public abstract class BaseCarAI implements CarAI {
     }
 
     protected final double getDistanceToPosition(Position pos, double x, double y) {
-        return Math.sqrt(Math.pow(pos.getX() - x, 2) + Math.pow(pos.getY() - y, 2));
+        return StrictMath.sqrt(StrictMath.pow(pos.getX() - x, 2) + StrictMath.pow(pos.getY() - y, 2));
     }
 
     protected final double getDistanceToBullet(Car myCar, Bullet bullet) {
@@ -100,6 +100,14 @@ public abstract class BaseCarAI implements CarAI {
         return 150 + (getShootingRange() - 1) * 50;
     }
 
+    /**
+     * Случайное число [0, 1) из генератора танка.
+     * В отличие от Math.random() повторяется при том же зерне матча
+     */
+    protected final double random(Car myCar) {
+        return myCar.getRandom().nextDouble();
+    }
+
     protected final double normalizeAngle(double angle) {
         while (angle > 180) angle -= 360;
         while (angle < -180) angle += 360;
@@ -167,6 +175,6 @@ public abstract class BaseCarAI implements CarAI {
     private double getAngleToPosition(Position from, double toX, double toY) {
         double dx = toX - from.getX();
         double dy = toY - from.getY();
-        return Math.toDegrees(Math.atan2(dy, dx));
+        return StrictMath.toDegrees(StrictMath.atan2(dy, dx));
     }
 }
\ No newline at end of file
@@ -69,13 +69,13 @@ public class SniperCarAI implements CarAI {
     private double calculateDistance(Position p1, Position p2) {
         double dx = p1.getX() - p2.getX();
         double dy = p1.getY() - p2.getY();
-        return Math.sqrt(dx * dx + dy * dy);
+        return StrictMath.sqrt(dx * dx + dy * dy);
     }
 
     private double calculateAngleToTarget(Position from, Position to) {
         double dx = to.getX() - from.getX();
         double dy = to.getY() - from.getY();
-        return Math.toDegrees(Math.atan2(dy, dx));
+        return StrictMath.toDegrees(StrictMath.atan2(dy, dx));
     }
 
     private double normalizeAngle(double angle) {
@@ -52,7 +52,7 @@ public class UserCarAI extends BaseCarAI {
                 return moveToEnemy(myCar, opponentCar);
             }
 
-            return maneuver();
+            return maneuver(myCar);
 
         } catch (Exception e) {
             return idle();
@@ -60,9 +60,9 @@ public class UserCarAI extends BaseCarAI {
     }
 
     // Ваш собственный метод
-    private CarAction maneuver() {
-        // Случайное маневрирование
-        double rand = Math.random();
+    private CarAction maneuver(Car myCar) {
+        // Случайное маневрирование (воспроизводимое при том же зерне матча)
+        double rand = random(myCar);
         if (rand < 0.3) {
             return turnLeft(0.4);
         } else if (rand < 0.6) {
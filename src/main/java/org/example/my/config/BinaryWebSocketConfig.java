@@ -0,0 +1,43 @@
+package org.example.my.config;
+
+import org.example.my.controller.MatchBinaryStreamHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+
+@Configuration
+@EnableWebSocket
+public class BinaryWebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private MatchBinaryStreamHandler binaryStreamHandler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Двоичные кадры боя: без STOMP и SockJS, только обычный WebSocket
+        registry.addHandler(binaryStreamHandler, "/ws-game-bin")
+                .setHandshakeHandler(new UncompressedHandshakeHandler())
+                .setAllowedOriginPatterns("*");
+    }
+
+    /**
+     * Отказывается от permessage-deflate: кадр один на всех зрителей, а сжатие делалось бы
+     * для каждого соединения отдельно. Двоичные кадры и так короткие.
+     */
+    private static class UncompressedHandshakeHandler extends DefaultHandshakeHandler {
+
+        @Override
+        protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                     List<WebSocketExtension> requestedExtensions,
+                                                                     List<WebSocketExtension> supportedExtensions) {
+            return List.of();
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package org.example.my.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${game.broadcast.send-time-limit-ms:1000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${game.broadcast.send-buffer-limit:524288}")
+    private int sendBufferLimitBytes;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Включаем простой брокер сообщений
@@ -27,4 +35,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Медленный JSON-зритель (в том числе SockJS через HTTP) отключается, а не копит кадры в брокере
+        registration.setSendTimeLimit(sendTimeLimitMillis)
+                .setSendBufferSizeLimit(sendBufferLimitBytes);
+    }
 }
\ No newline at end of file
@@ -1,13 +1,23 @@
 package org.example.my.controller;
 
+import org.example.my.ai.AIRegistry;
+import org.example.my.ai.dynamic.AICompileQueue;
+import org.example.my.ai.dynamic.AIGenerations;
+import org.example.my.ai.dynamic.CompileJob;
 import org.example.my.ai.dynamic.CustomAIManager;
+import org.example.my.engine.DecisionWatchdog;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @Controller
 @RequestMapping("/ai")
@@ -16,6 +26,18 @@ public class AIController {
     @Autowired
     private CustomAIManager aiManager;
 
+    @Autowired
+    private DecisionWatchdog watchdog;
+
+    @Autowired
+    private AICompileQueue compileQueue;
+
+    @Autowired
+    private AIGenerations generations;
+
+    @Autowired
+    private AIRegistry aiRegistry;
+
     @GetMapping("/editor")
     public String showAIEditor(Model model) {
         model.addAttribute("customAIs", aiManager.getAllCustomAINames());
@@ -42,6 +64,72 @@ public class AIController {
         return success ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
     }
 
+    // То же, что /upload, но без ожидания компиляции: ответ - номер задания (см. /ai/jobs/{jobId})
+    @PostMapping("/upload/async")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> uploadAIAsync(
+            @RequestParam String aiName,
+            @RequestParam String javaCode) {
+        return submit(Map.of(aiName, List.of(javaCode)));
+    }
+
+    /**
+     * Пакетная загрузка: {"ais": [{"aiName": "...", "javaCode": "..."},
+     * {"aiName": "...", "files": ["главный класс", "вспомогательный", ...]}]}.
+     * Все AI компилируются одной задачей javac.
+     */
+    @PostMapping("/upload/batch")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> uploadAIBatch(@RequestBody Map<String, Object> requestData) {
+        Map<String, List<String>> sources = new LinkedHashMap<>();
+        if (requestData.get("ais") instanceof List<?> ais) {
+            for (Object item : ais) {
+                if (!(item instanceof Map<?, ?> ai) || ai.get("aiName") == null) {
+                    return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Each AI needs an aiName"));
+                }
+                List<String> files = new ArrayList<>();
+                if (ai.get("files") instanceof List<?> list) {
+                    list.forEach(file -> files.add(String.valueOf(file)));
+                } else if (ai.get("javaCode") != null) {
+                    files.add(ai.get("javaCode").toString());
+                }
+                if (files.isEmpty()) {
+                    return ResponseEntity.badRequest()
+                            .body(Map.of("status", "error", "message", "No code for AI " + ai.get("aiName")));
+                }
+                if (sources.putIfAbsent(ai.get("aiName").toString(), files) != null) {
+                    return ResponseEntity.badRequest()
+                            .body(Map.of("status", "error", "message", "Duplicate AI in batch: " + ai.get("aiName")));
+                }
+            }
+        }
+        if (sources.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "No AIs to compile"));
+        }
+        return submit(sources);
+    }
+
+    // Состояние задания компиляции; обновления также приходят в STOMP-топик задания
+    @GetMapping("/jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getCompileJob(@PathVariable String jobId) {
+        CompileJob job = compileQueue.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("status", "error", "message", "Compile job not found: " + jobId));
+        }
+        return ResponseEntity.ok(job.describe());
+    }
+
+    private ResponseEntity<Map<String, Object>> submit(Map<String, List<String>> sources) {
+        try {
+            return ResponseEntity.accepted().body(compileQueue.submit(sources).describe());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
+
     @GetMapping("/template")
     @ResponseBody
     public String getAITemplate() {
@@ -115,4 +203,39 @@ public class AIController {
                 "aiStatuses", aiManager.getAllCustomAIStatuses()
         );
     }
-}
\ No newline at end of file
+
+    // Все AI, которые можно поставить в бой (id - для "ais" в POST /game/matches)
+    @GetMapping("/registry")
+    @ResponseBody
+    public List<Map<String, Object>> getRegistry() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (AIRegistry.Entry entry : aiRegistry.getEntries()) {
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("id", entry.id());
+            info.put("name", entry.name());
+            info.put("kind", entry.kind().name());
+            info.put("version", entry.version());
+            result.add(info);
+        }
+        return result;
+    }
+
+    // Версии загрузчиков пользовательских AI, сколько их выгружено, метаспейс и число классов JVM
+    @GetMapping("/loaders")
+    @ResponseBody
+    public Map<String, Object> getLoaders() {
+        return generations.describe();
+    }
+
+    // Сколько раз каждый AI не уложился в бюджет времени и сколько боев проиграл за это
+    @GetMapping("/watchdog")
+    @ResponseBody
+    public Map<String, Object> getWatchdogStats() {
+        return Map.of(
+                "budgetMillis", watchdog.getBudgetNanos() / 1_000_000,
+                "maxOverruns", watchdog.getMaxOverruns(),
+                "activeThreads", watchdog.getActiveThreads(),
+                "ais", watchdog.getStats()
+        );
+    }
+}
@@ -1,8 +1,21 @@
 package org.example.my.controller;
 
+import org.example.my.ai.AIRegistry;
+import org.example.my.ai.CarAI;
+import org.example.my.ai.DynamicCarAI;
+import org.example.my.ai.template.AggressiveCarAI;
+import org.example.my.ai.template.DefensiveCarAI;
+import org.example.my.engine.Match;
+import org.example.my.engine.MatchRegistry;
+import org.example.my.model.GameMode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -10,48 +23,219 @@ import java.util.Map;
 public class GameController {
 
     @Autowired
-    private GameEngine gameEngine;
+    private MatchRegistry matchRegistry;
 
-    @PostMapping("/start")
-    public Map<String, Object> startGame(@RequestBody(required = false) Map<String, String> requestData) {
-        gameEngine.initializeGame();
+    @Autowired
+    private AIRegistry aiRegistry;
 
-        // Если переданы данные о выборе AI, применяем их
-        if (requestData != null) {
-            String player1AI = requestData.get("player1AI");
-            String player2AI = requestData.get("player2AI");
+    // Создает новый матч и сразу запускает в нем бой
+    @PostMapping("/matches")
+    public ResponseEntity<Map<String, Object>> createMatch(@RequestBody(required = false) Map<String, Object> requestData) {
+        Match match;
+        try {
+            Object seed = requestData != null ? requestData.get("seed") : null;
+            match = matchRegistry.createMatch(seed != null && !seed.toString().isEmpty()
+                    ? Long.valueOf(seed.toString()) : null);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("status", "error", "message", "Invalid seed: " + e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("status", "error", "message", e.getMessage()));
+        }
 
-            if (player1AI != null && !player1AI.isEmpty()) {
-                gameEngine.setPlayerAI(1, player1AI);
-            }
-            if (player2AI != null && !player2AI.isEmpty()) {
-                gameEngine.setPlayerAI(2, player2AI);
-            }
+        try {
+            startMatch(match, requestData);
+        } catch (IllegalArgumentException e) {
+            matchRegistry.removeMatch(match.getId());
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            // Загруженный AI удалили, пока создавался бой
+            matchRegistry.removeMatch(match.getId());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("status", "error", "message", e.getMessage()));
         }
 
-        Map<String, Object> state = gameEngine.getGameState();
+        Map<String, Object> state = describe(match);
         state.put("status", "started");
-        return state;
+        return ResponseEntity.ok(state);
     }
 
-    @PostMapping("/update")
-    public Map<String, Object> updateGame() {
-        gameEngine.updateGame();
-        Map<String, Object> state = gameEngine.getGameState();
-        state.put("status", "updated");
-        return state;
+    @GetMapping("/matches")
+    public List<Map<String, Object>> listMatches() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Match match : matchRegistry.getMatches()) {
+            Map<String, Object> info = new HashMap<>();
+            info.put("matchId", match.getId());
+            info.put("topic", match.getTopic());
+            info.put("running", match.getEngine().isGameRunning());
+            info.put("mode", match.getEngine().getMode().name());
+            info.put("tanks", match.getEngine().getTankCount());
+            info.put("shard", match.getShard());
+            info.put("ticks", match.getTicks());
+            info.put("skippedTicks", match.getSkippedTicks());
+            info.put("lastTickMicros", match.getLastTickNanos() / 1000);
+            info.put("maxTickMicros", match.getMaxTickNanos() / 1000);
+            result.add(info);
+        }
+        return result;
+    }
+
+    // Перезапускает бой в существующем матче
+    @PostMapping("/matches/{matchId}/start")
+    public ResponseEntity<Map<String, Object>> startGame(@PathVariable String matchId,
+                                                         @RequestBody(required = false) Map<String, Object> requestData) {
+        Match match = matchRegistry.getMatch(matchId);
+        if (match == null) {
+            return notFound(matchId);
+        }
+
+        try {
+            startMatch(match, requestData);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("status", "error", "message", e.getMessage()));
+        }
+
+        Map<String, Object> state = describe(match);
+        state.put("status", "started");
+        return ResponseEntity.ok(state);
+    }
+
+    @GetMapping("/matches/{matchId}/state")
+    public ResponseEntity<Map<String, Object>> getGameState(@PathVariable String matchId) {
+        Match match = matchRegistry.getMatch(matchId);
+        if (match == null) {
+            return notFound(matchId);
+        }
+
+        Map<String, Object> state = describe(match);
+        state.put("status", match.getEngine().isGameRunning() ? "running" : "stopped");
+        return ResponseEntity.ok(state);
+    }
+
+    @PostMapping("/matches/{matchId}/stop")
+    public ResponseEntity<Map<String, Object>> stopGame(@PathVariable String matchId) {
+        Match match = matchRegistry.getMatch(matchId);
+        if (match == null) {
+            return notFound(matchId);
+        }
+
+        match.getEngine().stopGame();
+        return ResponseEntity.ok(Map.of("status", "stopped", "matchId", matchId));
+    }
+
+    /**
+     * Перемотка повтора (матч из /game/replays/{id}/play): {"tick": 1234}.
+     * Бой восстанавливается из ближайшего ключевого кадра записи и досчитывается до тика.
+     */
+    @PostMapping("/matches/{matchId}/seek")
+    public ResponseEntity<Map<String, Object>> seekReplay(@PathVariable String matchId,
+                                                          @RequestBody Map<String, Object> requestData) {
+        Match match = matchRegistry.getMatch(matchId);
+        if (match == null) {
+            return notFound(matchId);
+        }
+
+        long tick;
+        try {
+            tick = Long.parseLong(String.valueOf(requestData.get("tick")));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Invalid tick: " + e.getMessage()));
+        }
+        try {
+            match.getEngine().seekReplay(tick);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("status", "error", "message", "Match " + matchId + " is not a replay"));
+        }
+
+        Map<String, Object> state = describe(match);
+        state.put("status", "seeked");
+        return ResponseEntity.ok(state);
+    }
+
+    @DeleteMapping("/matches/{matchId}")
+    public ResponseEntity<Map<String, Object>> deleteMatch(@PathVariable String matchId) {
+        if (!matchRegistry.removeMatch(matchId)) {
+            return notFound(matchId);
+        }
+        return ResponseEntity.ok(Map.of("status", "removed", "matchId", matchId));
+    }
+
+    /**
+     * Запускает бой. Формат запроса:
+     * {"mode": "FFA"|"TEAMS", "teams": 2, "ais": ["aggressive", "simple", ...]}
+     * или дуэль по-старому: {"player1AI": "...", "player2AI": "..."}
+     */
+    private void startMatch(Match match, Map<String, Object> requestData) {
+        GameEngine gameEngine = match.getEngine();
+
+        // Все имена разрешаются до того, как бой перезапущен: ошибка в запросе не трогает текущий бой.
+        // Копии загруженных AI держат свою версию - если до движка дело не дошло, их нужно отпустить
+        List<?> aiNames = requestData != null && requestData.get("ais") instanceof List<?> list ? list : null;
+        GameMode mode = GameMode.FFA;
+        int teams = 2;
+        if (aiNames != null) {
+            mode = GameMode.valueOf(String.valueOf(requestData.getOrDefault("mode", "FFA")).toUpperCase());
+            teams = Integer.parseInt(String.valueOf(requestData.getOrDefault("teams", 2)));
+        }
+
+        List<CarAI> created = new ArrayList<>();
+        CarAI ai1 = null;
+        CarAI ai2 = null;
+        try {
+            if (aiNames != null) {
+                for (Object aiName : aiNames) {
+                    created.add(aiRegistry.create(String.valueOf(aiName)));
+                }
+            } else if (requestData != null) {
+                // Если переданы данные о выборе AI, применяем их
+                ai1 = createPlayerAI(requestData.get("player1AI"), created);
+                ai2 = createPlayerAI(requestData.get("player2AI"), created);
+            }
+        } catch (RuntimeException e) {
+            release(created);
+            throw e;
+        }
+
+        // Дальше копии принадлежат движку (отвергнутые он отпускает сам).
+        // Бой начинается сразу с нужными AI - в том числе в заголовке записи
+        if (aiNames != null) {
+            gameEngine.initializeGame(mode, teams, created);
+        } else {
+            gameEngine.initializeGame(ai1 != null ? ai1 : new AggressiveCarAI(), ai2 != null ? ai2 : new DefensiveCarAI());
+        }
+    }
+
+    private CarAI createPlayerAI(Object aiName, List<CarAI> created) {
+        if (aiName == null || aiName.toString().isEmpty()) {
+            return null;
+        }
+        CarAI ai = aiRegistry.create(aiName.toString());
+        created.add(ai);
+        return ai;
+    }
+
+    private static void release(List<CarAI> ais) {
+        for (CarAI ai : ais) {
+            if (ai instanceof DynamicCarAI dynamic) {
+                dynamic.release();
+            }
+        }
     }
 
-    @GetMapping("/state")
-    public Map<String, Object> getGameState() {
-        Map<String, Object> state = gameEngine.getGameState();
-        state.put("status", gameEngine.isGameRunning() ? "running" : "stopped");
+    private Map<String, Object> describe(Match match) {
+        Map<String, Object> state = match.getEngine().getGameState();
+        state.put("matchId", match.getId());
+        state.put("topic", match.getTopic());
         return state;
     }
 
-    @PostMapping("/stop")
-    public Map<String, Object> stopGame() {
-        gameEngine.stopGame();
-        return Map.of("status", "stopped");
+    private ResponseEntity<Map<String, Object>> notFound(String matchId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("status", "error", "message", "Match not found: " + matchId));
     }
-}
\ No newline at end of file
+}
@@ -1,332 +1,904 @@
 package org.example.my.controller;
 
 import org.example.my.ai.CarAI;
+import org.example.my.ai.DynamicCarAI;
+import org.example.my.ai.NearestEnemyAdapter;
+import org.example.my.ai.TankProfile;
+import org.example.my.ai.WorldAwareCarAI;
 import org.example.my.ai.template.*;
-import org.example.my.model.Bullet;
+import org.example.my.engine.DecisionWatchdog;
+import org.example.my.engine.EngineMetrics;
+import org.example.my.engine.GameEventLog;
+import org.example.my.engine.GameEventLog.Category;
+import org.example.my.engine.GameEventLog.Level;
+import org.example.my.engine.MatchWorldView;
+import org.example.my.engine.ReplayReader;
+import org.example.my.engine.ReplayRecorder;
+import org.example.my.engine.ReplayStore;
+import org.example.my.engine.SimulationClock;
+import org.example.my.engine.SpatialGrid;
+import org.example.my.engine.SweptCollision;
+import org.example.my.model.BulletPool;
 import org.example.my.model.Car;
 import org.example.my.model.CarAction;
+import org.example.my.model.GameMode;
+import org.example.my.model.MatchFrame;
 import org.example.my.model.Position;
-import org.springframework.stereotype.Service;
+import org.example.my.model.TankState;
+import org.example.my.model.WorldSnapshot;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-
-@Service
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Движок одного боя. Экземпляры создаются через MatchRegistry, по одному на матч.
+ * Поддерживает от 2 до 64 танков в режимах FFA и командного боя.
+ */
 public class GameEngine {
-    private Map<String, Car> cars = new ConcurrentHashMap<>();
-    private Map<String, CarAI> carAIs = new ConcurrentHashMap<>();
-    private Map<String, Boolean> statsApplied = new ConcurrentHashMap<>();
-    private List<Bullet> bullets = Collections.synchronizedList(new ArrayList<>());
-    private boolean gameRunning = false;
-
-    public void initializeGame() {
-        // Создаем две машины
-        Car player1 = Car.builder()
-                .position(new Position(100, 100, 0))
-                .name("Player 1")
-                .build();
-
-        Car player2 = Car.builder()
-                .position(new Position(700, 500, 180))
-                .name("Player 2")
-                .build();
-
-        cars.put("player1", player1);
-        cars.put("player2", player2);
+    public static final double ARENA_WIDTH = 800;
+    public static final double ARENA_HEIGHT = 600;
+    public static final int MIN_TANKS = 2;
+    public static final int MAX_TANKS = 64;
+
+    private static final int NO_TEAM = -1;
+    private static final int MULTIPLE_TEAMS = -2;
+
+    private static final double HIT_RADIUS = 25;
+    private static final double TANK_COLLISION_DISTANCE = 40;
+    // Ячейка сетки не меньше радиусов запросов: каждый запрос смотрит не больше 3x3 ячеек
+    private static final double GRID_CELL_SIZE = 64;
+
+    // Танки по номерам: индекс совпадает с номером владельца пули в пуле
+    private GameMode mode = GameMode.FFA;
+    private Car[] tanks = new Car[0];
+    private CarAI[] carAIs = new CarAI[0];
+    private WorldAwareCarAI[] brains = new WorldAwareCarAI[0];
+    private MatchWorldView[] views = new MatchWorldView[0];
+    private int[] teams = new int[0];
+    // Характеристики танков: профиль вычисляется при назначении AI, на тике не пересчитывается
+    private TankProfile[] profiles = new TankProfile[0];
+    private final BulletPool bullets = new BulletPool(ARENA_WIDTH, ARENA_HEIGHT);
+    private SpatialGrid grid = new SpatialGrid(ARENA_WIDTH, ARENA_HEIGHT, GRID_CELL_SIZE, MIN_TANKS);
+
+    // Рабочие массивы тика, выделяются при старте боя
+    private CarAction[] actions = new CarAction[0];
+    private int[] candidates = new int[0];
+    private double[] oldX = new double[0];
+    private double[] oldY = new double[0];
+    private double[] oldAngle = new double[0];
+    private boolean[] collided = new boolean[0];
+    private double maxTankMove = 0;
+
+    // Параллельное принятие решений: пул потоков задает MatchRegistry, без него AI вызываются по очереди
+    private ExecutorService decisionExecutor;
+    private int parallelThreshold = Integer.MAX_VALUE;
+    private List<Callable<CarAction>> decisionTasks = List.of();
+    private boolean distinctAIs = true;
+
+    // Сторож для недоверенных AI: решение под бюджетом времени, повторные нарушители сдаются
+    private DecisionWatchdog watchdog;
+    private String[] aiNames = new String[0];
+    private boolean[] guarded = new boolean[0];
+    private boolean[] awaiting = new boolean[0];
+    private DecisionWatchdog.Decision[] pending = new DecisionWatchdog.Decision[0];
+    private int[] overruns = new int[0];
+    private boolean[] suspended = new boolean[0];
+
+    // Новые версии загруженных AI: кладутся из любого потока без блокировки движка,
+    // подменяются потоком матча в начале следующего тика
+    private final Queue<DynamicCarAI> hotSwaps = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean gameRunning = false;
+    // Номер раунда: растет при каждом перезапуске и остановке боя
+    private int round = 0;
+    private final long seed;
+    private SimulationClock clock;
+    // События пишутся в журнал без форматирования на потоке тика;
+    // в headless-режиме (турниры, пакетные прогоны) движок ничего не пишет
+    private GameEventLog events = GameEventLog.DISABLED;
+    private String source = "engine";
+    private boolean headless = false;
+
+    // Замеры фаз тика и решений AI; без подключенных метрик время не замеряется
+    private EngineMetrics metrics = EngineMetrics.NOOP;
+    private long hitsNanos;
+
+    // Запись раунда для повтора (без хранилища бой не записывается).
+    // В повторе действия читаются из записи, AI не вызываются
+    private ReplayStore replays;
+    private String replaySource;
+    private ReplayRecorder recorder;
+    private ReplayReader playback;
+    private final ReplayReader.Listener playbackEvents = new ReplayReader.Listener() {
+        @Override
+        public void onProfile(int slot, String ai, TankProfile profile) {
+            applyRecordedAI(slot, ai, profile);
+            overruns[slot] = 0;
+            suspended[slot] = false;
+        }
+
+        @Override
+        public void onForfeit(int slot) {
+            forfeit(slot);
+        }
+    };
 
+    public GameEngine(long seed) {
+        this.seed = seed;
+        this.clock = new SimulationClock(seed);
+    }
+
+    public synchronized void initializeGame() {
         // НАПРЯМУЮ назначаем AI для теста
-        carAIs.put("player1", new AggressiveCarAI());
-        carAIs.put("player2", new DefensiveCarAI());
+        initializeGame(new AggressiveCarAI(), new DefensiveCarAI());
+    }
 
-        // СРАЗУ применяем характеристики
-        applyTankStatsIfNeeded("player1", player1);
-        applyTankStatsIfNeeded("player2", player2);
+    // Дуэль с готовыми экземплярами AI (используется турнирами)
+    public synchronized void initializeGame(CarAI ai1, CarAI ai2) {
+        initializeGame(GameMode.FFA, 2, List.of(ai1, ai2));
+    }
+
+    /**
+     * Бой любого размера: по танку на каждый AI.
+     * В режиме TEAMS танки по порядку делятся на teamCount команд примерно поровну.
+     * Переданные AI переходят движку: копии загруженных AI он отпускает сам, даже если бой не начат.
+     */
+    public synchronized void initializeGame(GameMode gameMode, int teamCount, List<CarAI> ais) {
+        int n = ais.size();
+        if (n < MIN_TANKS || n > MAX_TANKS) {
+            release(ais);
+            throw new IllegalArgumentException(
+                    String.format("Tank count must be between %d and %d, got %d", MIN_TANKS, MAX_TANKS, n));
+        }
+
+        finishRecording();
+        playback = null;
+        prepareTanks(gameMode, teamCount, n);
+
+        // Назначение AI сразу применяет характеристики
+        for (int t = 0; t < n; t++) {
+            setPlayerAI(t + 1, ais.get(t));
+        }
 
-        bullets.clear();
-        statsApplied.clear();
         gameRunning = true;
+        if (replays != null) {
+            recorder = replays.record(replaySource, round, seed, mode, teamCount, aiNames, profiles);
+        }
 
-        System.out.println("🎮 Game initialized with DIRECT AI assignment");
+        event(Level.INFO, Category.LIFECYCLE, "🎮 Game initialized: %d tanks, mode=%s", n, mode);
     }
 
-    public void updateGame() {
-        if (!gameRunning) return;
+    /**
+     * Повтор записанного раунда: те же танки и характеристики, а действия берутся из записи.
+     * Зерно движка должно совпадать с зерном записи (MatchRegistry создает матч с ним).
+     */
+    public synchronized void initializeReplay(ReplayReader replay) {
+        int n = replay.getTankCount();
+        if (replay.getSeed() != seed) {
+            throw new IllegalArgumentException("Replay seed " + replay.getSeed() + " does not match engine seed " + seed);
+        }
+        if (n < MIN_TANKS || n > MAX_TANKS) {
+            throw new IllegalArgumentException("Replay has " + n + " tanks");
+        }
+
+        finishRecording();
+        prepareTanks(replay.getMode(), replay.getTeamCount(), n);
+        for (int t = 0; t < n; t++) {
+            applyRecordedAI(t, replay.getAis().get(t), replay.getProfiles().get(t));
+        }
+        playback = replay;
+        gameRunning = true;
+
+        event(Level.INFO, Category.LIFECYCLE, "📼 Replay of %s round %d initialized: %d tanks, mode=%s",
+                replay.getMatchId(), replay.getRound(), n, mode);
+    }
+
+    /**
+     * Перемотка повтора: состояние из ближайшего ключевого кадра не позже tick,
+     * затем досчет оставшихся тиков по записи. Раунд меняется, поэтому зрители получают
+     * полный кадр. Возвращает тик, на котором оказался бой (меньше tick, если запись короче).
+     */
+    public synchronized long seekReplay(long tick) {
+        if (playback == null) {
+            throw new IllegalStateException("Not a replay");
+        }
+
+        ReplayReader.Keyframe keyframe = playback.seek(tick);
+        if (keyframe == null) {
+            prepareTanks(playback.getMode(), playback.getTeamCount(), tanks.length);
+            for (int t = 0; t < tanks.length; t++) {
+                applyRecordedAI(t, playback.getAis().get(t), playback.getProfiles().get(t));
+            }
+        } else {
+            round++;
+            restoreKeyframe(keyframe);
+        }
+        gameRunning = true;
 
-        Car player1 = cars.get("player1");
-        Car player2 = cars.get("player2");
-        CarAI ai1 = carAIs.get("player1");
-        CarAI ai2 = carAIs.get("player2");
+        long restored = clock.getTick();
+        while (gameRunning && clock.getTick() < tick) {
+            updateGame();
+        }
+        event(Level.INFO, Category.LIFECYCLE, "⏩ Replay seek to tick %d: keyframe %d, %d ticks simulated",
+                tick, restored, clock.getTick() - restored);
+        return clock.getTick();
+    }
+
+    private void restoreKeyframe(ReplayReader.Keyframe keyframe) {
+        for (int t = 0; t < tanks.length; t++) {
+            ReplayReader.TankFrame frame = keyframe.tanks().get(t);
+            Car car = tanks[t];
+            applyRecordedAI(t, frame.ai(), frame.profile());
+            car.setPosition(new Position(frame.x(), frame.y(), frame.angle()));
+            car.setSpeed(frame.speed());
+            car.setHealth(frame.health());
+            car.setAlive(frame.alive());
+            car.setReloadTicks(frame.reloadTicks());
+            suspended[t] = frame.suspended();
+            overruns[t] = frame.overruns();
+            oldX[t] = frame.x();
+            oldY[t] = frame.y();
+            oldAngle[t] = frame.angle();
+        }
+
+        bullets.clear(keyframe.nextBulletId());
+        for (ReplayReader.BulletFrame bullet : keyframe.bullets()) {
+            bullets.restore(bullet.id(), bullet.owner(), bullet.x(), bullet.y(), bullet.dx(), bullet.dy(),
+                    bullet.angle(), bullet.damage(), bullet.ticksLeft());
+        }
+
+        clock.setTick(keyframe.tick());
+        syncGrid();
+    }
+
+    // Новый раунд: пустые танки на стартовых позициях, часы и генераторы из зерна матча
+    private void prepareTanks(GameMode gameMode, int teamCount, int n) {
+        mode = gameMode;
+        round++;
+        releaseAIs();
+        tanks = new Car[n];
+        carAIs = new CarAI[n];
+        brains = new WorldAwareCarAI[n];
+        views = new MatchWorldView[n];
+        teams = new int[n];
+        profiles = new TankProfile[n];
+        actions = new CarAction[n];
+        candidates = new int[n];
+        oldX = new double[n];
+        oldY = new double[n];
+        oldAngle = new double[n];
+        collided = new boolean[n];
+        decisionTasks = new ArrayList<>(n);
+        cancelPendingDecisions();
+        aiNames = new String[n];
+        guarded = new boolean[n];
+        awaiting = new boolean[n];
+        pending = new DecisionWatchdog.Decision[n];
+        overruns = new int[n];
+        suspended = new boolean[n];
+
+        int groups = Math.max(2, Math.min(teamCount, n));
+        for (int t = 0; t < n; t++) {
+            teams[t] = mode == GameMode.TEAMS ? t * groups / n : t;
+        }
+
+        // Новые часы и генераторы из того же зерна: перезапуск матча воспроизводит бой
+        clock = new SimulationClock(seed);
+        for (int t = 0; t < n; t++) {
+            tanks[t] = Car.builder()
+                    .position(spawnPosition(t, n))
+                    .name("Player " + (t + 1))
+                    .build();
+            tanks[t].setRandom(clock.split());
+        }
+
+        bullets.clear();
+        for (int t = 0; t < n; t++) {
+            final int slot = t;
+            views[t] = new MatchWorldView(t, n, tanks[t].getRandom());
+            decisionTasks.add(() -> timedDecision(slot));
+        }
 
-        if (player1 == null || player2 == null) {
-            System.out.println("Cars not initialized!");
+        grid = new SpatialGrid(ARENA_WIDTH, ARENA_HEIGHT, GRID_CELL_SIZE, n);
+        syncGrid();
+    }
+
+    /**
+     * Стартовые позиции: для дуэли - классические углы поля,
+     * для большего числа танков - равномерная сетка лицом к центру
+     */
+    private Position spawnPosition(int index, int count) {
+        if (count == 2) {
+            return index == 0 ? new Position(100, 100, 0) : new Position(700, 500, 180);
+        }
+
+        int cols = (int) Math.ceil(StrictMath.sqrt(count * ARENA_WIDTH / ARENA_HEIGHT));
+        int rows = (count + cols - 1) / cols;
+        double x = ARENA_WIDTH * (index % cols + 1) / (cols + 1);
+        double y = ARENA_HEIGHT * (index / cols + 1) / (rows + 1);
+        double angle = StrictMath.toDegrees(StrictMath.atan2(ARENA_HEIGHT / 2 - y, ARENA_WIDTH / 2 - x));
+        return new Position(x, y, angle < 0 ? angle + 360 : angle);
+    }
+
+    // Один тик симуляции; вызывается серверным игровым циклом (GameLoop), а не клиентом
+    public synchronized void updateGame() {
+        if (!gameRunning) return;
+
+        if (tanks.length == 0) {
+            event(Level.WARN, Category.LIFECYCLE, "Cars not initialized!");
             return;
         }
+        if (!hotSwaps.isEmpty()) {
+            applyHotSwaps();
+        }
         // ПРОВЕРКА AI КЛАССОВ
-        if (System.currentTimeMillis() % 100 == 0) {
-            System.out.println("\n🔍 AI CLASS CHECK:");
-            System.out.println("   P1 AI: " + (ai1 != null ? ai1.getClass().getSimpleName() : "NULL"));
-            System.out.println("   P2 AI: " + (ai2 != null ? ai2.getClass().getSimpleName() : "NULL"));
-
-            if (ai1 != null) {
-                System.out.printf("   P1 Stats: Range=%d, Speed=%d, FireRate=%d%n",
-                        ai1.getShootingRange(), ai1.getMovementSpeed(), ai1.getFireRate());
-            }
-            if (ai2 != null) {
-                System.out.printf("   P2 Stats: Range=%d, Speed=%d, FireRate=%d%n",
-                        ai2.getShootingRange(), ai2.getMovementSpeed(), ai2.getFireRate());
+        if (clock.getTick() % 100 == 0 && logging(Level.DEBUG, Category.AI)) {
+            for (int t = 0; t < tanks.length; t++) {
+                CarAI ai = carAIs[t];
+                emit(Level.DEBUG, Category.AI, "🔍 P%d AI: %s", t + 1, ai != null ? ai.getClass().getSimpleName() : "NULL");
             }
         }
-        // Применяем характеристики если еще не применяли
-        applyTankStatsIfNeeded("player1", player1);
-        applyTankStatsIfNeeded("player2", player2);
+        boolean measuring = metrics.isEnabled();
+        long tickStart = measuring ? System.nanoTime() : 0;
+        long allocatedAtStart = measuring ? EngineMetrics.currentThreadAllocatedBytes() : -1;
 
         // Сохраняем старые позиции для отката при коллизии
-        Position oldPos1 = player1.getPosition().copy();
-        Position oldPos2 = player2.getPosition().copy();
-
-        // Получаем действия от AI
-        CarAction action1 = ai1.decideAction(player1, player2, bullets);
-        CarAction action2 = ai2.decideAction(player2, player1, bullets);
+        for (int t = 0; t < tanks.length; t++) {
+            Position pos = tanks[t].getPosition();
+            oldX[t] = pos.getX();
+            oldY[t] = pos.getY();
+            oldAngle[t] = pos.getAngle();
+        }
 
-        // Обрабатываем стрельбу
-        if (action1.getType() == CarAction.ActionType.SHOOT && player1.canShoot()) {
-            Bullet bullet = player1.shoot();
-            if (bullet != null) {
-                bullets.add(bullet);
-                Position pos = bullet.getPosition();
-                System.out.printf("🔫 %s shot bullet at (%.1f, %.1f)%n",
-                        player1.getName(), pos.getX(), pos.getY());
+        // Получаем действия от AI по неизменяемому снимку мира (уничтоженные танки не действуют)
+        if (playback == null) {
+            decideActions(takeSnapshot());
+            if (recorder != null) {
+                recorder.recordTick(actions);
             }
+        } else if (!playback.nextTick(actions, playbackEvents)) {
+            gameRunning = false;
+            event(Level.INFO, Category.LIFECYCLE, "📼 Replay finished at tick %d", clock.getTick());
+            return;
         }
+        long aiDone = measuring ? System.nanoTime() : 0;
 
-        if (action2.getType() == CarAction.ActionType.SHOOT && player2.canShoot()) {
-            Bullet bullet = player2.shoot();
-            if (bullet != null) {
-                bullets.add(bullet);
-                Position pos = bullet.getPosition();
-                System.out.printf("🔫 %s shot bullet at (%.1f, %.1f)%n",
-                        player2.getName(), pos.getX(), pos.getY());
+        // Обрабатываем стрельбу
+        for (int t = 0; t < tanks.length; t++) {
+            Car car = tanks[t];
+            CarAction action = actions[t];
+            if (action != null && action.getType() == CarAction.ActionType.SHOOT && car.canShoot()) {
+                int bullet = car.shoot(bullets, t);
+                if (bullet >= 0 && logging(Level.DEBUG, Category.SHOOT)) {
+                    emit(Level.DEBUG, Category.SHOOT, "🔫 %s shot bullet at (%.1f, %.1f)",
+                            car.getName(), bullets.x(bullet), bullets.y(bullet));
+                }
             }
         }
 
         // Применяем остальные действия
-        applyNonShootAction(player1, action1);
-        applyNonShootAction(player2, action2);
+        for (int t = 0; t < tanks.length; t++) {
+            applyNonShootAction(tanks[t], actions[t]);
+        }
 
         // Обновляем состояние машин
-        player1.update();
-        player2.update();
+        for (Car car : tanks) {
+            car.update();
+        }
+        syncGrid();
 
         // Обновляем пули
-        updateBullets();
+        updateBullets(measuring);
 
         // Проверяем коллизии машин
-        if (checkCollision(player1, player2)) {
-            player1.setPosition(oldPos1);
-            player2.setPosition(oldPos2);
-            player1.setSpeed(0);
-            player2.setSpeed(0);
-            System.out.println("🚗 Collision detected! Positions reverted.");
-        }
+        resolveTankCollisions();
 
         // Логируем статистику
         logTankStats();
-    }
 
-    private void applyTankStatsIfNeeded(String playerKey, Car car) {
-//        if (!statsApplied.getOrDefault(playerKey, false)) {
-            CarAI ai = carAIs.get(playerKey);
-            if (ai != null) {
-                try {
-                    // ЖЕСТКАЯ проверка характеристик
-                    int range = ai.getShootingRange();
-                    int speed = ai.getMovementSpeed();
-                    int fireRate = ai.getFireRate();
-                    int total = range + speed + fireRate;
-
-                    System.out.printf("🔍 Validating %s: Range=%d, Speed=%d, FireRate=%d, Total=%d%n",
-                            playerKey, range, speed, fireRate, total);
-
-                    if (range < 1 || range > 5 || speed < 1 || speed > 5 || fireRate < 1 || fireRate > 5) {
-                        throw new IllegalStateException(
-                                String.format("Stats must be between 1 and 5! Got: Range=%d, Speed=%d, FireRate=%d",
-                                        range, speed, fireRate));
-                    }
+        if (measuring) {
+            long tickEnd = System.nanoTime();
+            long allocatedAtEnd = EngineMetrics.currentThreadAllocatedBytes();
+            metrics.recordPhase(EngineMetrics.Phase.AI, aiDone - tickStart);
+            metrics.recordPhase(EngineMetrics.Phase.HITS, hitsNanos);
+            metrics.recordPhase(EngineMetrics.Phase.PHYSICS, tickEnd - aiDone - hitsNanos);
+            metrics.recordTick(tickEnd - tickStart,
+                    allocatedAtStart >= 0 && allocatedAtEnd >= 0 ? allocatedAtEnd - allocatedAtStart : -1);
+        }
 
-                    if (total > 10) {
-                        throw new IllegalStateException(
-                                String.format("Too many points! Max 10, got %d (Range=%d, Speed=%d, FireRate=%d)",
-                                        total, range, speed, fireRate));
-                    }
+        clock.advance();
 
-                    // Применяем характеристики к танку
-                    applyAITankStats(ai, car);
-                    statsApplied.put(playerKey, true);
+        // Раунд записан до результата; дальше бой идет, но в повтор не попадает
+        if (recorder != null) {
+            if (isGameOver()) {
+                finishRecording();
+            } else if (recorder.isKeyframeDue()) {
+                recorder.recordKeyframe(clock.getTick(), tanks, aiNames, profiles, suspended, overruns, bullets);
+            }
+        }
+    }
 
-                    System.out.printf("✅ SUCCESS: Applied stats for %s: %s%n",
-                            playerKey, getStatsDescription(ai, car));
+    // Решение одного AI с замером времени (вызывается и в потоке матча, и в пуле решений)
+    private CarAction timedDecision(int slot) {
+        if (!metrics.isEnabled()) {
+            return brains[slot].decideAction(views[slot]);
+        }
+        long start = System.nanoTime();
+        try {
+            return brains[slot].decideAction(views[slot]);
+        } finally {
+            metrics.recordDecision(aiNames[slot], System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Снимок состояния на начало тика: все AI видят один и тот же мир,
+     * независимо от порядка и потоков, в которых они вызываются
+     */
+    private WorldSnapshot takeSnapshot() {
+        TankState[] states = new TankState[tanks.length];
+        for (int t = 0; t < tanks.length; t++) {
+            states[t] = TankState.of(t, teams[t], tanks[t]);
+        }
+        return new WorldSnapshot(clock.getTick(), mode, List.of(states), bullets.snapshot());
+    }
+
+    /**
+     * Решения AI не зависят друг от друга, поэтому при наличии пула они считаются параллельно
+     * и фаза AI занимает время самого медленного AI, а не сумму. Результат от этого не меняется.
+     * Недоверенные AI запускаются первыми под присмотром сторожа и считают одновременно с остальными.
+     */
+    private void decideActions(WorldSnapshot snapshot) {
+        long deadline = watchdog != null ? System.nanoTime() + watchdog.getBudgetNanos() : 0;
+
+        List<Callable<CarAction>> active = new ArrayList<>(tanks.length);
+        int[] activeSlots = new int[tanks.length];
+        for (int t = 0; t < tanks.length; t++) {
+            actions[t] = null;
+            awaiting[t] = false;
+            if (!tanks[t].isAlive() || brains[t] == null || suspended[t]) {
+                continue;
+            }
+            if (guarded[t]) {
+                startGuardedDecision(t, snapshot);
+                continue;
+            }
+            views[t].refresh(snapshot);
+            activeSlots[active.size()] = t;
+            active.add(decisionTasks.get(t));
+        }
 
-                } catch (Exception e) {
-                    System.err.println("❌ CRITICAL ERROR for " + playerKey + ": " + e.getMessage());
-                    System.err.println("🚨 Using DEFAULT stats due to invalid configuration");
-                    applyDefaultStats(car);
-                    statsApplied.put(playerKey, true);
+        // Один экземпляр AI на нескольких танках нельзя вызывать из разных потоков
+        if (decisionExecutor == null || !distinctAIs || active.size() < parallelThreshold) {
+            for (int i = 0; i < active.size(); i++) {
+                int t = activeSlots[i];
+                actions[t] = timedDecision(t);
+            }
+        } else {
+            try {
+                List<Future<CarAction>> results = decisionExecutor.invokeAll(active);
+                for (int i = 0; i < results.size(); i++) {
+                    actions[activeSlots[i]] = results.get(i).get();
+                }
+            } catch (InterruptedException e) {
+                // Матч останавливают: этот тик танки простаивают
+                Thread.currentThread().interrupt();
+                Arrays.fill(actions, null);
+                return;
+            } catch (ExecutionException e) {
+                // Исключение AI ведет себя так же, как при последовательном вызове
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
                 }
-//            }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(cause);
+            }
         }
+
+        collectGuardedDecisions(deadline);
     }
 
-    // Добавьте в GameEngine.java
-    public void setPlayerAI(int playerNumber, String aiName) {
-        String playerKey = playerNumber == 1 ? "player1" : "player2";
+    private void startGuardedDecision(int slot, WorldSnapshot snapshot) {
+        DecisionWatchdog.Decision previous = pending[slot];
+        if (previous != null) {
+            if (!previous.isDone()) {
+                // Прошлое решение еще считается: его результат устарел, танк простаивает, и тик его не ждет.
+                // AI, который так и не ответил за несколько тиков (даже просто ожидая, без расхода процессора),
+                // прерывается и получает нарушение
+                if (System.nanoTime() - previous.getStartedNanos() < watchdog.getStallNanos()) {
+                    return;
+                }
+                previous.cancel();
+                pending[slot] = null;
+                recordOverrun(slot, "stalled");
+                return;
+            }
+            pending[slot] = null;
+        }
 
+        views[slot].refresh(snapshot);
         try {
-            switch (aiName) {
-                case "aggressive":
-                    carAIs.put(playerKey, new AggressiveCarAI());
-                    break;
-                case "defensive":
-                    carAIs.put(playerKey, new DefensiveCarAI());
-                    break;
-                case "simple":
-                    carAIs.put(playerKey, new SimpleCarAI());
-                    break;
-                case "test":
-                    carAIs.put(playerKey, new TestCarAI());
-                    break;
-                case "test2":
-                    carAIs.put(playerKey, new Test2CarAI());
-                    break;
-                default:
-                    carAIs.put(playerKey, new SimpleCarAI());
-                    break;
+            pending[slot] = watchdog.submit(aiNames[slot], decisionTasks.get(slot));
+            awaiting[slot] = true;
+        } catch (RejectedExecutionException e) {
+            event(Level.WARN, Category.WATCHDOG, "⚠️ No watchdog threads left for player%d, skipping decision", slot + 1);
+        }
+    }
+
+    private void collectGuardedDecisions(long deadline) {
+        for (int t = 0; t < tanks.length; t++) {
+            if (!awaiting[t]) {
+                continue;
+            }
+            DecisionWatchdog.Decision decision = pending[t];
+            try {
+                CarAction action = decision.await(deadline - System.nanoTime());
+                actions[t] = action;
+                pending[t] = null;
+            } catch (TimeoutException e) {
+                // Не уложился: тик идет дальше с действием по умолчанию.
+                // Нарушение засчитываем, только если AI сам израсходовал бюджет процессора
+                if (decision.cpuNanos() >= watchdog.getBudgetNanos()) {
+                    recordOverrun(t, "over budget");
+                } else {
+                    watchdog.recordLate(aiNames[t]);
+                }
+            } catch (ExecutionException e) {
+                pending[t] = null;
+                event(Level.WARN, Category.WATCHDOG, "❌ AI of player%d failed: %s", t + 1, e.getCause());
+                recordOverrun(t, "failed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
             }
-            System.out.println("Set " + playerKey + " AI to: " + aiName);
+        }
+    }
 
-            // Сбрасываем примененные характеристики для этого игрока
-            statsApplied.remove(playerKey);
+    private void recordOverrun(int slot, String reason) {
+        overruns[slot]++;
+        watchdog.recordOverrun(aiNames[slot]);
+        event(Level.WARN, Category.WATCHDOG, "⏰ player%d (%s) overran its decision budget: %s (%d/%d)",
+                slot + 1, aiNames[slot], reason, overruns[slot], watchdog.getMaxOverruns());
 
-        } catch (Exception e) {
-            System.err.println("Error setting AI for " + playerKey + ": " + e.getMessage());
-            carAIs.put(playerKey, new SimpleCarAI());
+        if (overruns[slot] < watchdog.getMaxOverruns()) {
+            return;
+        }
+
+        // Повторный нарушитель отстраняется, а его танк выбывает из боя
+        forfeit(slot);
+        if (recorder != null) {
+            recorder.recordForfeit(slot);
         }
+        watchdog.recordForfeit(aiNames[slot]);
+        event(Level.WARN, Category.WATCHDOG, "⛔ player%d (%s) suspended and forfeits", slot + 1, aiNames[slot]);
     }
 
-    private void applyAITankStats(CarAI ai, Car car) {
-        try {
-            System.out.println("🎯 ===== APPLYING STATS FOR " + car.getName() + " =====");
+    private void forfeit(int slot) {
+        suspended[slot] = true;
+        if (pending[slot] != null) {
+            pending[slot].cancel();
+        }
+        Car car = tanks[slot];
+        car.takeDamage(car.getHealth());
+    }
+
+    private void cancelPendingDecisions() {
+        for (DecisionWatchdog.Decision decision : pending) {
+            if (decision != null) {
+                decision.cancel();
+            }
+        }
+    }
 
-            int range = ai.getShootingRange();
-            int speed = ai.getMovementSpeed();
-            int fireRate = ai.getFireRate();
+    /**
+     * Подключает сторожа решений. Без него все AI вызываются без ограничения времени.
+     */
+    public synchronized void setWatchdog(DecisionWatchdog watchdog) {
+        this.watchdog = watchdog;
+        for (int t = 0; t < carAIs.length; t++) {
+            guarded[t] = watchdog != null && carAIs[t] != null && watchdog.guards(carAIs[t]);
+        }
+    }
 
-            System.out.printf("📊 RAW STATS: Range=%d, Speed=%d, FireRate=%d%n", range, speed, fireRate);
+    /**
+     * Подключает пул для параллельного принятия решений; параллельно считаются тики,
+     * где действуют хотя бы threshold танков. null - все AI вызываются по очереди в потоке матча.
+     */
+    public synchronized void setDecisionExecutor(ExecutorService executor, int threshold) {
+        this.decisionExecutor = executor;
+        this.parallelThreshold = Math.max(2, threshold);
+    }
 
-            // ПРИМЕНЯЕМ С ОГРОМНОЙ РАЗНИЦЕЙ (используем примитивные типы)
-            double maxSpeed = 1.0 + (speed - 1) * 1.25;    // 1.0 - 6.0
-            double acceleration = 0.05 + (speed - 1) * 0.2;
-            int bulletLifetime = 500 + (range - 1) * 2000;
-            long shootCooldown = 2500L - (fireRate - 1) * 600L;
+    /**
+     * Берет профиль характеристик AI (из кэша, проверенный) и применяет его к танку.
+     * AI с неправильной конфигурацией играет с характеристиками по умолчанию.
+     */
+    private void applyTankProfile(int slot, CarAI ai) {
+        TankProfile profile;
+        try {
+            profile = TankProfile.of(ai);
+        } catch (Exception e) {
+            event(Level.ERROR, Category.STATS, "❌ Invalid stats for player%d, using DEFAULT stats: %s",
+                    slot + 1, e.getMessage());
+            profile = TankProfile.DEFAULT;
+        }
+        profiles[slot] = profile;
+        profile.applyTo(tanks[slot]);
 
-            System.out.printf("⚡ APPLYING: Speed=%.1f, Accel=%.3f, Range=%dms, FireRate=%dms%n",
-                    maxSpeed, acceleration, bulletLifetime, shootCooldown);
+        if (logging(Level.DEBUG, Category.STATS)) {
+            emit(Level.DEBUG, Category.STATS, "✅ Applied stats for player%d: %s", slot + 1, profile.describe());
+        }
+    }
 
-            // Применяем к танку
-            car.setMaxSpeed(maxSpeed);
-            car.setAcceleration(acceleration);
-            car.setBulletLifetime(bulletLifetime);
-            car.setShootCooldown(shootCooldown);
+    public synchronized void setPlayerAI(int playerNumber, CarAI ai) {
+        int slot = playerNumber - 1;
+        if (slot < 0 || slot >= tanks.length) {
+            throw new IllegalArgumentException("No such player: " + playerNumber);
+        }
+        if (playback != null) {
+            throw new IllegalStateException("Replay tanks are driven by the recording");
+        }
+        assignAI(slot, ai);
+    }
 
-            System.out.printf("✅ CONFIRMED: %s now has Speed=%.1f, Range=%dms%n",
-                    car.getName(), car.getMaxSpeed(), car.getBulletLifetime());
+    /**
+     * Новая версия загруженного AI: танки со старой версией этого AI получат новую
+     * в начале следующего тика. Можно вызывать из любого потока - бой не останавливается
+     * и не ждет; копия AI создается и подменяется потоком матча между тиками.
+     */
+    public void hotSwap(DynamicCarAI newVersion) {
+        hotSwaps.add(newVersion);
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ ERROR in applyAITankStats: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
+    private void applyHotSwaps() {
+        DynamicCarAI newVersion;
+        while ((newVersion = hotSwaps.poll()) != null) {
+            if (playback != null) {
+                continue;
+            }
+            for (int t = 0; t < carAIs.length; t++) {
+                if (!(carAIs[t] instanceof DynamicCarAI current)
+                        || !Objects.equals(current.getRegisteredName(), newVersion.getRegisteredName())
+                        || current.getVersion() >= newVersion.getVersion()) {
+                    continue;
+                }
+                try {
+                    assignAI(t, newVersion.newInstance());
+                    event(Level.INFO, Category.AI, "🔁 player%d hot-swapped to %s v%d",
+                            t + 1, newVersion.getRegisteredName(), newVersion.getVersion());
+                } catch (IllegalStateException e) {
+                    event(Level.WARN, Category.AI, "Hot swap of player%d failed: %s", t + 1, e.getMessage());
+                }
+            }
         }
     }
 
-    private String getStatsDescription(CarAI ai, Car car) {
-        return String.format("Range=%d→%dms, Speed=%d→%.1f, FireRate=%d→%dms",
-                ai.getShootingRange(), car.getBulletLifetime(),
-                ai.getMovementSpeed(), car.getMaxSpeed(),
-                ai.getFireRate(), car.getShootCooldown());
+    private void releaseAIs() {
+        release(Arrays.asList(carAIs));
     }
 
-    private void applyDefaultStats(Car car) {
-        car.setMaxSpeed(5.0);
-        car.setAcceleration(0.2);
-        car.setBulletLifetime(2000);
-        car.setShootCooldown(1000);
+    // Отпускает копии загруженных AI (одна копия может стоять в нескольких слотах)
+    private static void release(List<CarAI> ais) {
+        Set<CarAI> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (CarAI ai : ais) {
+            if (ai instanceof DynamicCarAI dynamic && seen.add(ai)) {
+                dynamic.release();
+            }
+        }
     }
 
-    private void updateBullets() {
-        // Обновляем все активные пули
-        for (Bullet bullet : bullets) {
-            if (bullet.isActive()) {
-                bullet.update();
+    private void assignAI(int slot, CarAI ai) {
+        CarAI previous = carAIs[slot];
+        carAIs[slot] = ai;
+        if (previous instanceof DynamicCarAI dynamic && previous != ai
+                && Arrays.stream(carAIs).noneMatch(other -> other == previous)) {
+            dynamic.release();
+        }
+        // Дуэльные AI получают в противники ближайшего врага
+        brains[slot] = ai instanceof WorldAwareCarAI worldAware ? worldAware : new NearestEnemyAdapter(ai);
+
+        applyTankProfile(slot, ai);
+
+        // Имя загруженного AI берем без вызова пользовательского кода
+        aiNames[slot] = ai instanceof DynamicCarAI dynamic ? dynamic.getCustomAIName() : ai.getAIName();
+        guarded[slot] = watchdog != null && watchdog.guards(ai);
+        if (pending[slot] != null) {
+            pending[slot].cancel();
+            pending[slot] = null;
+        }
+        overruns[slot] = 0;
+        suspended[slot] = false;
+
+        Set<CarAI> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinctAIs = true;
+        for (CarAI carAI : carAIs) {
+            if (carAI != null && !seen.add(carAI)) {
+                distinctAIs = false;
             }
         }
 
-        // Проверяем попадания пуль
-        checkBulletHits();
+        // Смена AI посреди раунда попадает в запись
+        if (recorder != null) {
+            recorder.recordProfile(slot, aiNames[slot], profiles[slot]);
+        }
+    }
 
-        // Удаляем неактивные пули
-        bullets.removeIf(bullet -> !bullet.isActive());
+    // Танк повтора: имя и характеристики из записи, без AI
+    private void applyRecordedAI(int slot, String ai, TankProfile profile) {
+        aiNames[slot] = ai;
+        profiles[slot] = profile;
+        profile.applyTo(tanks[slot]);
     }
 
-    private void checkBulletHits() {
-        Iterator<Bullet> iterator = bullets.iterator();
-        int hitsChecked = 0;
+    public synchronized TankProfile getTankProfile(int playerNumber) {
+        return profiles[playerNumber - 1];
+    }
 
-        while (iterator.hasNext()) {
-            Bullet bullet = iterator.next();
-            if (!bullet.isActive()) continue;
+    private void updateBullets(boolean measuring) {
+        // Двигаем пули; попадания проверяем по всему отрезку движения,
+        // поэтому пуля, вылетевшая за поле на этом тике, еще может попасть в танк у края
+        bullets.move();
 
-            hitsChecked++;
+        // Проверяем попадания пуль
+        // Без подключенных метрик фаза попаданий не замеряется
+        long hitsStart = measuring ? System.nanoTime() : 0;
+        checkBulletHits();
+        if (measuring) {
+            hitsNanos = System.nanoTime() - hitsStart;
+        }
 
-            for (Map.Entry<String, Car> entry : cars.entrySet()) {
-                Car car = entry.getValue();
+        // Удаляем истекшие и вылетевшие за поле
+        bullets.removeExpired();
+    }
 
-                // Пуля не должна попадать в своего владельца
-                if (bullet.getOwner() == car) {
+    // Доступен в пакете для бенчмарка HitDetectionBenchmark
+    void checkBulletHits() {
+        int hitsChecked = bullets.size();
+
+        int i = 0;
+        while (i < bullets.size()) {
+            double x0 = bullets.prevX(i);
+            double y0 = bullets.prevY(i);
+            double x1 = bullets.x(i);
+            double y1 = bullets.y(i);
+            int owner = bullets.owner(i);
+
+            // Из сетки берем танки вокруг всего отрезка движения пули (с запасом на ход танка),
+            // затем точная проверка отрезка против круга
+            double halfPath = 0.5 * StrictMath.sqrt((x1 - x0) * (x1 - x0) + (y1 - y0) * (y1 - y0));
+            int found = grid.query(0.5 * (x0 + x1), 0.5 * (y0 + y1),
+                    HIT_RADIUS + halfPath + maxTankMove, candidates);
+            int target = -1;
+            double earliest = SweptCollision.NO_HIT;
+
+            for (int k = 0; k < found; k++) {
+                int t = candidates[k];
+                // Пуля не должна попадать в своего владельца и его союзников, а подбитый танк ее не останавливает
+                if (teams[t] == teams[owner] || !tanks[t].isAlive()) {
                     continue;
                 }
 
-                double distance = calculateDistance(bullet.getPosition(), car.getPosition());
-                boolean isHit = distance < 25; // Радиус попадания
+                Position carPos = tanks[t].getPosition();
+                double toi = SweptCollision.timeOfImpact(x0, y0, x1, y1,
+                        oldX[t], oldY[t], carPos.getX(), carPos.getY(), HIT_RADIUS);
 
                 // Детальное логирование для отладки
-                if (distance < 50) {
-                    System.out.printf("💥 Checking %s: distance=%.1f, hit=%s%n",
-                            entry.getKey(), distance, isHit);
+                if (logging(Level.TRACE, Category.HIT)) {
+                    emit(Level.TRACE, Category.HIT, "💥 Checking player%d: time of impact=%.2f", t + 1, toi);
+                }
+
+                // Если на пути несколько танков, попадает в тот, которого пуля коснется раньше
+                // (при равенстве - в меньший номер)
+                if (toi < earliest || (toi == earliest && target >= 0 && t < target)) {
+                    earliest = toi;
+                    target = t;
                 }
+            }
+
+            if (target < 0) {
+                i++;
+                continue;
+            }
+
+            Car car = tanks[target];
+            int damage = (int) bullets.damage(i);
+            car.takeDamage(damage);
+            if (logging(Level.DEBUG, Category.HIT)) {
+                emit(Level.DEBUG, Category.HIT, "🔴 DIRECT HIT! player%d took %d damage, health: %d",
+                        target + 1, damage, car.getHealth());
+            }
+
+            if (!car.isAlive()) {
+                event(Level.INFO, Category.HIT, "💀 player%d DESTROYED!", target + 1);
+            }
 
-                if (isHit) {
-                    car.takeDamage((int) bullet.getDamage());
-                    bullet.setActive(false);
-                    System.out.printf("🔴 DIRECT HIT! %s took %d damage, health: %d%n",
-                            entry.getKey(), (int) bullet.getDamage(), car.getHealth());
+            // Попавшая пуля удаляется: на ее место встает последняя, индекс не увеличиваем
+            bullets.remove(i);
+        }
 
-                    if (!car.isAlive()) {
-                        System.out.printf("💀 %s DESTROYED!%n", entry.getKey());
+        if (hitsChecked > 0 && logging(Level.TRACE, Category.HIT)) {
+            emit(Level.TRACE, Category.HIT, "🎯 Checked %d bullets for hits", hitsChecked);
+        }
+    }
+
+    /**
+     * Столкновения танков: пары ищем через сетку, столкнувшиеся танки откатываем на позиции до хода
+     */
+    private void resolveTankCollisions() {
+        double collisionSq = TANK_COLLISION_DISTANCE * TANK_COLLISION_DISTANCE;
+        boolean anyCollision = false;
+        Arrays.fill(collided, false);
+
+        for (int t = 0; t < tanks.length; t++) {
+            // Подбитые танки остаются в сетке, но никому не мешают
+            if (!tanks[t].isAlive()) {
+                continue;
+            }
+            Position pos = tanks[t].getPosition();
+            int found = grid.query(pos.getX(), pos.getY(), TANK_COLLISION_DISTANCE, candidates);
+
+            for (int k = 0; k < found; k++) {
+                int other = candidates[k];
+                // Каждую пару проверяем один раз
+                if (other <= t || !tanks[other].isAlive()) {
+                    continue;
+                }
+
+                Position otherPos = tanks[other].getPosition();
+                double dx = pos.getX() - otherPos.getX();
+                double dy = pos.getY() - otherPos.getY();
+                double distanceSq = dx * dx + dy * dy;
+
+                if (distanceSq < collisionSq) {
+                    collided[t] = true;
+                    collided[other] = true;
+                    anyCollision = true;
+                    if (logging(Level.DEBUG, Category.COLLISION)) {
+                        emit(Level.DEBUG, Category.COLLISION, "🚗 Collision! player%d and player%d, distance=%.1f",
+                                t + 1, other + 1, StrictMath.sqrt(distanceSq));
                     }
-                    break;
                 }
             }
         }
 
-        if (hitsChecked > 0) {
-            System.out.printf("🎯 Checked %d bullets for hits%n", hitsChecked);
+        if (!anyCollision) {
+            return;
+        }
+
+        for (int t = 0; t < tanks.length; t++) {
+            if (collided[t]) {
+                Car car = tanks[t];
+                car.setPosition(new Position(oldX[t], oldY[t], oldAngle[t]));
+                car.setSpeed(0);
+                grid.move(t, oldX[t], oldY[t]);
+            }
+        }
+        if (logging(Level.TRACE, Category.COLLISION)) {
+            emit(Level.TRACE, Category.COLLISION, "🚗 Collision detected! Positions reverted.");
         }
     }
 
-    private double calculateDistance(Position p1, Position p2) {
-        if (p1 == null || p2 == null) return Double.MAX_VALUE;
-        double dx = p1.getX() - p2.getX();
-        double dy = p1.getY() - p2.getY();
-        return Math.sqrt(dx * dx + dy * dy);
+    // Перекладывает в сетке только те танки, что сменили ячейку, и запоминает наибольший ход танка за тик
+    private void syncGrid() {
+        double maxMoveSq = 0;
+        for (int t = 0; t < tanks.length; t++) {
+            Position pos = tanks[t].getPosition();
+            grid.move(t, pos.getX(), pos.getY());
+
+            double dx = pos.getX() - oldX[t];
+            double dy = pos.getY() - oldY[t];
+            maxMoveSq = Math.max(maxMoveSq, dx * dx + dy * dy);
+        }
+        maxTankMove = StrictMath.sqrt(maxMoveSq);
     }
 
     private void applyNonShootAction(Car car, CarAction action) {
@@ -353,96 +925,230 @@ public class GameEngine {
         }
     }
 
-    private boolean checkCollision(Car car1, Car car2) {
-        if (car1 == null || car2 == null) return false;
-
-        double distance = calculateDistance(car1.getPosition(), car2.getPosition());
-        boolean collision = distance < 40;
-
-        if (collision) {
-            System.out.printf("🚗 Collision! Distance=%.1f%n", distance);
-        }
-
-        return collision;
-    }
-
     private void logTankStats() {
-        Car player1 = cars.get("player1");
-        Car player2 = cars.get("player2");
-
-        if (player1 != null && player2 != null) {
-            // Логируем раз в 10 обновлений чтобы не спамить
-            if (System.currentTimeMillis() % 10 == 0) {
-                System.out.printf("🎯 STATS - P1: speed=%.1f/%.1f, health=%d | P2: speed=%.1f/%.1f, health=%d | Bullets: %d%n",
-                        player1.getSpeed(), player1.getMaxSpeed(), player1.getHealth(),
-                        player2.getSpeed(), player2.getMaxSpeed(), player2.getHealth(),
-                        bullets.size());
+        // Логируем раз в 10 обновлений чтобы не спамить
+        if (clock.getTick() % 10 == 0 && logging(Level.DEBUG, Category.TICK)) {
+            int alive = 0;
+            for (Car car : tanks) {
+                if (car.isAlive()) {
+                    alive++;
+                }
             }
+            emit(Level.DEBUG, Category.TICK, "🎯 STATS - Alive: %d/%d | Bullets: %d", alive, tanks.length, bullets.size());
         }
     }
 
-    public Map<String, Object> getGameState() {
+    public synchronized Map<String, Object> getGameState() {
         Map<String, Object> state = new HashMap<>();
 
-        Car player1 = cars.get("player1");
-        Car player2 = cars.get("player2");
-
-        if (player1 != null) {
-            state.put("player1", Map.of(
-                    "x", player1.getPosition().getX(),
-                    "y", player1.getPosition().getY(),
-                    "angle", player1.getPosition().getAngle(),
-                    "health", player1.getHealth(),
-                    "alive", player1.isAlive(),
-                    "name", player1.getName(),
-                    "speed", player1.getSpeed(),
-                    "maxSpeed", player1.getMaxSpeed(),
-                    "canShoot", player1.canShoot()
-            ));
-        }
-
-        if (player2 != null) {
-            state.put("player2", Map.of(
-                    "x", player2.getPosition().getX(),
-                    "y", player2.getPosition().getY(),
-                    "angle", player2.getPosition().getAngle(),
-                    "health", player2.getHealth(),
-                    "alive", player2.isAlive(),
-                    "name", player2.getName(),
-                    "speed", player2.getSpeed(),
-                    "maxSpeed", player2.getMaxSpeed(),
-                    "canShoot", player2.canShoot()
-            ));
+        List<Map<String, Object>> tankData = new ArrayList<>(tanks.length);
+        for (int t = 0; t < tanks.length; t++) {
+            Car car = tanks[t];
+            Map<String, Object> tank = new HashMap<>();
+            tank.put("id", t);
+            tank.put("team", teams[t]);
+            tank.put("name", car.getName());
+            tank.put("ai", aiNames[t]);
+            tank.put("x", car.getPosition().getX());
+            tank.put("y", car.getPosition().getY());
+            tank.put("angle", car.getPosition().getAngle());
+            tank.put("health", car.getHealth());
+            tank.put("alive", car.isAlive());
+            tank.put("speed", car.getSpeed());
+            tank.put("maxSpeed", car.getMaxSpeed());
+            tank.put("canShoot", car.canShoot());
+            tank.put("overruns", overruns[t]);
+            tank.put("suspended", suspended[t]);
+            tankData.add(tank);
         }
+        state.put("tanks", tankData);
 
         // Добавляем информацию о пулях
-        List<Map<String, Object>> bulletData = new ArrayList<>();
-        for (Bullet bullet : bullets) {
-            if (bullet.isActive()) {
-                bulletData.add(Map.of(
-                        "x", bullet.getX(),
-                        "y", bullet.getY(),
-                        "angle", bullet.getAngle()
-                ));
-            }
+        List<Map<String, Object>> bulletData = new ArrayList<>(bullets.size());
+        for (int i = 0; i < bullets.size(); i++) {
+            bulletData.add(Map.of(
+                    "x", bullets.x(i),
+                    "y", bullets.y(i),
+                    "angle", bullets.angle(i)
+            ));
         }
         state.put("bullets", bulletData);
 
+        state.put("mode", mode.name());
         state.put("gameRunning", gameRunning);
+        state.put("replay", playback != null);
+        state.put("gameOver", isGameOver());
+        state.put("winner", getWinner());
+        state.put("tick", clock.getTick());
+        state.put("seed", seed);
         state.put("timestamp", System.currentTimeMillis());
-
         return state;
     }
 
-    public void stopGame() {
+    /**
+     * Состояние после последнего тика для рассылки зрителям (кадры и дельты строит MatchFrameEncoder)
+     */
+    public synchronized MatchFrame captureFrame() {
+        List<String> ais = new ArrayList<>(tanks.length);
+        List<Integer> overrunCounts = new ArrayList<>(tanks.length);
+        List<Boolean> suspendedFlags = new ArrayList<>(tanks.length);
+        for (int t = 0; t < tanks.length; t++) {
+            ais.add(aiNames[t]);
+            overrunCounts.add(overruns[t]);
+            suspendedFlags.add(suspended[t]);
+        }
+        WorldSnapshot snapshot = takeSnapshot();
+        return new MatchFrame(round, snapshot.tick(), mode, seed, gameRunning, isGameOver(), getWinner(),
+                snapshot.tanks(), ais, overrunCounts, suspendedFlags, snapshot.bullets());
+    }
+
+    public synchronized void stopGame() {
+        finishRecording();
+        playback = null;
         gameRunning = false;
-        cars.clear();
-        carAIs.clear();
+        round++;
+        releaseAIs();
+        tanks = new Car[0];
+        carAIs = new CarAI[0];
+        brains = new WorldAwareCarAI[0];
+        views = new MatchWorldView[0];
+        teams = new int[0];
+        profiles = new TankProfile[0];
         bullets.clear();
-        statsApplied.clear();
+        decisionTasks = List.of();
+        cancelPendingDecisions();
+        aiNames = new String[0];
+        guarded = new boolean[0];
+        awaiting = new boolean[0];
+        pending = new DecisionWatchdog.Decision[0];
+        overruns = new int[0];
+        suspended = new boolean[0];
     }
 
     public boolean isGameRunning() {
         return gameRunning;
     }
+
+    /**
+     * Бой окончен, когда живые танки остались не больше чем у одной команды
+     * (в режиме FFA каждый танк - отдельная команда)
+     */
+    public synchronized boolean isGameOver() {
+        return tanks.length > 0 && survivingTeam() != MULTIPLE_TEAMS;
+    }
+
+    /**
+     * Номер победившей команды + 1 (в FFA - номер игрока), 0 - ничья или бой еще идет
+     */
+    public synchronized int getWinner() {
+        int team = survivingTeam();
+        return team >= 0 ? team + 1 : 0;
+    }
+
+    // Для бенчмарков: пул пуль текущего боя
+    BulletPool getBulletPool() {
+        return bullets;
+    }
+
+    public synchronized int getBulletCount() {
+        return bullets.size();
+    }
+
+    public synchronized int getAliveCount() {
+        int alive = 0;
+        for (Car car : tanks) {
+            if (car.isAlive()) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    public synchronized GameMode getMode() {
+        return mode;
+    }
+
+    public synchronized int getTankCount() {
+        return tanks.length;
+    }
+
+    // Команда, у которой остались живые танки; NO_TEAM - все уничтожены, MULTIPLE_TEAMS - бой продолжается
+    private int survivingTeam() {
+        int survivor = NO_TEAM;
+        for (int t = 0; t < tanks.length; t++) {
+            if (!tanks[t].isAlive()) {
+                continue;
+            }
+            if (survivor == NO_TEAM) {
+                survivor = teams[t];
+            } else if (survivor != teams[t]) {
+                return MULTIPLE_TEAMS;
+            }
+        }
+        return survivor;
+    }
+
+    /**
+     * Подключает запись боев; source - номер матча в именах записей
+     */
+    public synchronized void setReplayStore(ReplayStore replays, String source) {
+        this.replays = replays;
+        this.replaySource = source;
+    }
+
+    public synchronized boolean isReplay() {
+        return playback != null;
+    }
+
+    // Итог раунда дописывается в запись, файл закрывается
+    private void finishRecording() {
+        if (recorder == null) {
+            return;
+        }
+        ReplayRecorder finished = recorder;
+        recorder = null;
+        finished.finish(getWinner());
+        event(Level.INFO, Category.LIFECYCLE, "📼 Replay %s saved: %d ticks, %d bytes",
+                finished.getId(), finished.getTicks(), finished.getSize());
+    }
+
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
+    public synchronized void setMetrics(EngineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Подключает журнал событий; source - метка движка в журнале (например, id матча)
+     */
+    public synchronized void setEventLog(GameEventLog events, String source) {
+        this.events = events;
+        this.source = source;
+    }
+
+    // Проверяется до подготовки аргументов: на отключенных уровнях событие ничего не стоит
+    private boolean logging(Level level, Category category) {
+        return !headless && events.shouldLog(level, category);
+    }
+
+    private void emit(Level level, Category category, String template, Object... args) {
+        events.publish(level, category, source, clock.getTick(), template, args);
+    }
+
+    // Для редких событий (старт боя, уничтожение танка), где отдельная проверка не нужна
+    private void event(Level level, Category category, String template, Object... args) {
+        if (logging(level, category)) {
+            emit(level, category, template, args);
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getTick() {
+        return clock.getTick();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package org.example.my.controller;
+
+import org.example.my.engine.BinaryFrameEncoder;
+import org.example.my.engine.Match;
+import org.example.my.engine.MatchBroadcaster;
+import org.example.my.engine.MatchRegistry;
+import org.example.my.engine.SpectatorSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Двоичные кадры боя по WebSocket: /ws-game-bin?match={id}.
+ * Сразу после подключения клиент получает полный кадр, дальше - рассылку MatchBroadcaster
+ * через собственную очередь отправки (SpectatorSession).
+ * Текстовое сообщение "keyframe" - запрос полного кадра (клиент пропустил дельту).
+ */
+@Component
+public class MatchBinaryStreamHandler extends BinaryWebSocketHandler {
+
+    private static final String VIEWER_ATTRIBUTE = "viewer";
+
+    @Autowired
+    private MatchRegistry matchRegistry;
+
+    @Autowired
+    private MatchBroadcaster broadcaster;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String matchId = session.getUri() != null
+                ? UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("match")
+                : null;
+        Match match = matchId != null ? matchRegistry.getMatch(matchId) : null;
+        if (match == null) {
+            session.sendMessage(new BinaryMessage(BinaryFrameEncoder.removed()));
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("No such match: " + matchId));
+            return;
+        }
+
+        session.getAttributes().put(VIEWER_ATTRIBUTE, broadcaster.addBinaryViewer(match, session));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        if (!"keyframe".equals(message.getPayload())) {
+            return;
+        }
+        SpectatorSession viewer = (SpectatorSession) session.getAttributes().get(VIEWER_ATTRIBUTE);
+        Match match = viewer != null ? matchRegistry.getMatch(viewer.getMatchId()) : null;
+        if (match != null) {
+            broadcaster.sendKeyframe(match, viewer);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        SpectatorSession viewer = (SpectatorSession) session.getAttributes().get(VIEWER_ATTRIBUTE);
+        if (viewer != null) {
+            viewer.close(status);
+            broadcaster.removeBinaryViewer(viewer);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.my.controller;
+
+import org.example.my.engine.Match;
+import org.example.my.engine.MatchRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+/**
+ * STOMP-запросы зрителей. Подписка на /app/match/{id}/keyframe - запрос-ответ:
+ * полный кадр приходит только подписавшемуся клиенту, минуя брокер.
+ * Так новый зритель получает начальное состояние, а пропустивший дельту - восстанавливается.
+ */
+@Controller
+public class MatchStreamController {
+
+    @Autowired
+    private MatchRegistry matchRegistry;
+
+    @SubscribeMapping("/match/{matchId}/keyframe")
+    public Map<String, Object> keyframe(@DestinationVariable String matchId) {
+        Match match = matchRegistry.getMatch(matchId);
+        if (match == null) {
+            return Map.of("matchId", matchId, "removed", true);
+        }
+        return match.keyframe();
+    }
+}
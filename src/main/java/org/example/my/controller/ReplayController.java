@@ -0,0 +1,216 @@
+package org.example.my.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.my.engine.Match;
+import org.example.my.engine.MatchRegistry;
+import org.example.my.engine.ReplayReader;
+import org.example.my.engine.ReplayStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Записи боев: список, скачивание файла (с поддержкой Range) и повтор в новом матче
+ * (зрители смотрят повтор так же, как обычный бой; перемотка - /game/matches/{id}/seek)
+ */
+@RestController
+@RequestMapping("/game/replays")
+public class ReplayController {
+
+    @Autowired
+    private ReplayStore replayStore;
+
+    @Autowired
+    private MatchRegistry matchRegistry;
+
+    @GetMapping
+    public List<Map<String, Object>> listReplays() throws IOException {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (String id : replayStore.list()) {
+            try {
+                result.add(describe(id, replayStore.open(id)));
+            } catch (IOException | IllegalArgumentException e) {
+                // Файл удален или поврежден - в списке его нет
+            }
+        }
+        return result;
+    }
+
+    @GetMapping("/{replayId}")
+    public ResponseEntity<Map<String, Object>> getReplay(@PathVariable String replayId) throws IOException {
+        ReplayReader replay;
+        try {
+            replay = replayStore.open(replayId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+        if (replay == null) {
+            return notFound(replayId);
+        }
+        return ResponseEntity.ok(describe(replayId, replay));
+    }
+
+    /**
+     * Файл записи как есть (формат - в ReplayRecorder). Поддерживается один диапазон
+     * "Range: bytes=a-b" (ответ 206); байты идут из файла через FileChannel.transferTo,
+     * файл целиком в память не читается.
+     */
+    @GetMapping("/{replayId}/file")
+    public void downloadReplay(@PathVariable String replayId,
+                               @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                               HttpServletResponse response) throws IOException {
+        Path file = replayStore.resolve(replayId);
+        if (file == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            long end = size - 1;
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+            long[] bounds = range != null ? parseRange(range, size) : null;
+            if (bounds != null) {
+                if (bounds[0] >= size) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+
+            long length = end - start + 1;
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"");
+            response.setContentLengthLong(length);
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long sent = 0;
+            while (sent < length) {
+                long written = channel.transferTo(start + sent, length - sent, out);
+                if (written <= 0) {
+                    break;
+                }
+                sent += written;
+            }
+        }
+    }
+
+    // Повтор: новый матч с зерном записи, танки которого ведет запись; {"tick": N} - начать с тика N
+    @PostMapping("/{replayId}/play")
+    public ResponseEntity<Map<String, Object>> playReplay(@PathVariable String replayId,
+                                                          @RequestBody(required = false) Map<String, Object> requestData) throws IOException {
+        ReplayReader replay;
+        try {
+            replay = replayStore.open(replayId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+        if (replay == null) {
+            return notFound(replayId);
+        }
+
+        Match match;
+        try {
+            match = matchRegistry.createMatch(replay.getSeed());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("status", "error", "message", e.getMessage()));
+        }
+        try {
+            match.getEngine().initializeReplay(replay);
+            Object tick = requestData != null ? requestData.get("tick") : null;
+            if (tick != null) {
+                match.getEngine().seekReplay(Long.parseLong(tick.toString()));
+            }
+        } catch (IllegalArgumentException e) {
+            matchRegistry.removeMatch(match.getId());
+            return ResponseEntity.unprocessableEntity().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+
+        Map<String, Object> state = match.getEngine().getGameState();
+        state.put("matchId", match.getId());
+        state.put("topic", match.getTopic());
+        state.put("replayId", replayId);
+        state.put("status", "replaying");
+        return ResponseEntity.ok(state);
+    }
+
+    private Map<String, Object> describe(String id, ReplayReader replay) throws IOException {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("replayId", id);
+        info.put("matchId", replay.getMatchId());
+        info.put("round", replay.getRound());
+        info.put("seed", replay.getSeed());
+        info.put("startedAt", replay.getStartedAt());
+        info.put("mode", replay.getMode().name());
+        info.put("teams", replay.getTeamCount());
+        info.put("ais", replay.getAis());
+
+        // Запись занимает килобайты, поэтому длительность считается проходом по ней
+        replay.skipToEnd();
+        info.put("ticks", replay.getTicks());
+        info.put("seconds", (double) replay.getTicks() / replay.getTickRate());
+        info.put("complete", replay.isComplete());
+        info.put("winner", replay.getWinner());
+        info.put("keyframes", replay.getKeyframeTicks());
+        info.put("bytes", Files.size(replayStore.resolve(id)));
+        return info;
+    }
+
+    /**
+     * Один диапазон из заголовка Range: {начало, конец} включительно; начало за концом файла - 416.
+     * null - заголовок не разобран, диапазон неправильный (конец раньше начала)
+     * или диапазонов несколько: заголовок игнорируется и отдается весь файл (RFC 9110, 14.2)
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            if (dash == 0) {
+                // Последние n байт
+                long suffix = Long.parseLong(spec.substring(1));
+                return suffix > 0 ? new long[]{Math.max(0, size - suffix), size - 1} : new long[]{size, size - 1};
+            }
+            long start = Long.parseLong(spec.substring(0, dash));
+            if (dash == spec.length() - 1) {
+                return new long[]{start, size - 1};
+            }
+            long last = Long.parseLong(spec.substring(dash + 1));
+            return last >= start ? new long[]{start, Math.min(size - 1, last)} : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> notFound(String replayId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("status", "error", "message", "Replay not found: " + replayId));
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.my.controller;
+
+import org.example.my.tournament.TournamentResult;
+import org.example.my.tournament.TournamentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@RestController
+@RequestMapping("/tournament")
+public class TournamentController {
+
+    @Autowired
+    private TournamentService tournamentService;
+
+    @GetMapping("/entrants")
+    public List<Map<String, String>> getEntrants() {
+        return tournamentService.getEntrantNames();
+    }
+
+    // Круговой турнир: каждая пара AI проводит matchesPerPairing боев, бой ограничен maxTicks тиками
+    @PostMapping("/run")
+    public ResponseEntity<?> runTournament(@RequestParam(defaultValue = "10") int matchesPerPairing,
+                                           @RequestParam(defaultValue = "3600") int maxTicks,
+                                           @RequestParam(required = false) Long seed) {
+        if (matchesPerPairing < 1 || matchesPerPairing > 10_000 || maxTicks < 1 || maxTicks > 1_000_000) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "matchesPerPairing must be 1..10000 and maxTicks 1..1000000"));
+        }
+
+        long tournamentSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        TournamentResult result = tournamentService.runTournament(matchesPerPairing, maxTicks, tournamentSeed);
+        return ResponseEntity.ok(result);
+    }
+}
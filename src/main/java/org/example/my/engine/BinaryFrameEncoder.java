@@ -0,0 +1,353 @@
+package org.example.my.engine;
+
+import org.example.my.model.BulletView;
+import org.example.my.model.GameMode;
+import org.example.my.model.MatchFrame;
+import org.example.my.model.TankState;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Те же кадры, что и MatchFrameEncoder (полные и дельты с номерами seq), но в компактном
+ * двоичном виде для WebSocket. Пишет прямо в переиспользуемый ByteBuffer без промежуточных
+ * Map и упаковки чисел; предыдущий кадр хранится в примитивных массивах.
+ * <p>
+ * Формат (little-endian):
+ * <pre>
+ * заголовок:  u8 type (1 - полный, 2 - дельта, 3 - бой удален), u8 flags (0 - идет, 1 - окончен, 2 - TEAMS),
+ *             u8 winner, u8 0, u32 seq, u32 tick
+ * полный:     u32 round, i64 seed, u16 tickRate, u8 tanks, танки, u16 bullets, пули
+ *   танк:     u8 team, f32 x, f32 y, u16 angle, i16 health, u8 state, u8 overruns, f32 speed, f32 maxSpeed,
+ *             str name, str ai
+ * дельта:     u8 changed, [u8 id, u8 mask, поля по маске], u16 spawned, пули, u16 removed, [i32 id]
+ *   маска:    0 - x, y; 1 - angle; 2 - health; 3 - state; 4 - overruns; 5 - speed; 6 - maxSpeed; 7 - team, name, ai
+ * пуля:       i32 id, f32 x, f32 y, f32 dx, f32 dy
+ * angle:      u16, полный круг = 65536; state: 0 - жив, 1 - может стрелять, 2 - отстранен сторожем
+ * str:        u8 длина, UTF-8
+ * </pre>
+ */
+public class BinaryFrameEncoder {
+
+    public static final byte KEYFRAME = 1;
+    public static final byte DELTA = 2;
+    public static final byte REMOVED = 3;
+
+    private static final int HEADER_BYTES = 12;
+    private static final int TANK_BYTES = 1 + 4 + 4 + 2 + 2 + 1 + 1 + 4 + 4 + 2 * 256;
+    private static final int BULLET_BYTES = 4 + 4 * 4;
+    private static final int MAX_NAME_CHARS = 60;
+
+    private final int keyframeInterval;
+    private final int tickRate;
+    private ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+    // Последний отправленный кадр: для дельт и полного кадра по запросу
+    private MatchFrame last;
+    private long seq = -1;
+    private int sinceKeyframe = 0;
+
+    // Полный кадр последнего номера: отставшим зрителям отдается один и тот же массив
+    private byte[] keyframeBytes;
+    private long keyframeSeq = -1;
+
+    private int tankCount = -1;
+    private float[] x = new float[0];
+    private float[] y = new float[0];
+    private int[] angle = new int[0];
+    private int[] health = new int[0];
+    private int[] state = new int[0];
+    private int[] overruns = new int[0];
+    private float[] speed = new float[0];
+    private float[] maxSpeed = new float[0];
+    private int[] team = new int[0];
+    private String[] name = new String[0];
+    private String[] ai = new String[0];
+    private int[] ids = new int[0];
+    private int idCount = 0;
+    private int[] currentIds = new int[0];
+
+    public BinaryFrameEncoder(int keyframeInterval, int tickRate) {
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+        this.tickRate = tickRate;
+    }
+
+    /**
+     * Кадр для очередной рассылки; возвращается отдельный массив, общий для всех зрителей (не изменять)
+     */
+    public synchronized byte[] next(MatchFrame frame) {
+        seq++;
+        boolean keyframe = last == null
+                || last.round() != frame.round()
+                || tankCount != frame.tanks().size()
+                || ++sinceKeyframe >= keyframeInterval;
+
+        buffer.clear();
+        if (keyframe) {
+            sinceKeyframe = 0;
+            writeKeyframe(frame, seq);
+        } else {
+            writeDelta(frame);
+        }
+        remember(frame);
+        byte[] bytes = toBytes();
+        if (keyframe) {
+            keyframeBytes = bytes;
+            keyframeSeq = seq;
+        }
+        return bytes;
+    }
+
+    /**
+     * Полный кадр с последним отправленным номером; если кадров еще не было, первым становится текущий
+     */
+    public synchronized byte[] keyframe(Supplier<MatchFrame> current) {
+        if (last == null) {
+            return next(current.get());
+        }
+        if (keyframeSeq != seq) {
+            buffer.clear();
+            writeKeyframe(last, seq);
+            keyframeBytes = toBytes();
+            keyframeSeq = seq;
+        }
+        return keyframeBytes;
+    }
+
+    /**
+     * Сообщение об удалении боя (только заголовок)
+     */
+    public static byte[] removed() {
+        ByteBuffer message = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        message.put(REMOVED).put((byte) 0).put((byte) 0).put((byte) 0).putInt(0).putInt(0);
+        return message.array();
+    }
+
+    private void writeHeader(byte type, MatchFrame frame, long frameSeq) {
+        int flags = (frame.running() ? 1 : 0) | (frame.gameOver() ? 2 : 0) | (frame.mode() == GameMode.TEAMS ? 4 : 0);
+        buffer.put(type)
+                .put((byte) flags)
+                .put((byte) frame.winner())
+                .put((byte) 0)
+                .putInt((int) frameSeq)
+                .putInt((int) frame.tick());
+    }
+
+    private void writeKeyframe(MatchFrame frame, long frameSeq) {
+        BulletView bullets = frame.bullets();
+        ensureCapacity(HEADER_BYTES + 15 + frame.tanks().size() * TANK_BYTES + 2 + bullets.size() * BULLET_BYTES);
+
+        writeHeader(KEYFRAME, frame, frameSeq);
+        buffer.putInt(frame.round()).putLong(frame.seed()).putShort((short) tickRate).put((byte) frame.tanks().size());
+        for (int t = 0; t < frame.tanks().size(); t++) {
+            TankState tank = frame.tanks().get(t);
+            buffer.put((byte) tank.team())
+                    .putFloat((float) tank.x())
+                    .putFloat((float) tank.y())
+                    .putShort((short) encodeAngle(tank.angle()))
+                    .putShort((short) tank.health())
+                    .put((byte) encodeState(frame, t))
+                    .put((byte) Math.min(255, frame.overruns().get(t)))
+                    .putFloat((float) tank.speed())
+                    .putFloat((float) tank.maxSpeed());
+            putString(tank.name());
+            putString(frame.ais().get(t));
+        }
+
+        buffer.putShort((short) bullets.size());
+        for (int i = 0; i < bullets.size(); i++) {
+            putBullet(bullets, i);
+        }
+    }
+
+    private void writeDelta(MatchFrame frame) {
+        BulletView bullets = frame.bullets();
+        ensureCapacity(HEADER_BYTES + 1 + frame.tanks().size() * (2 + TANK_BYTES)
+                + 2 + bullets.size() * BULLET_BYTES + 2 + idCount * 4);
+
+        writeHeader(DELTA, frame, seq);
+        int countAt = buffer.position();
+        buffer.put((byte) 0);
+        int changed = 0;
+        for (int t = 0; t < frame.tanks().size(); t++) {
+            TankState tank = frame.tanks().get(t);
+            float tx = (float) tank.x();
+            float ty = (float) tank.y();
+            int ta = encodeAngle(tank.angle());
+            int ts = encodeState(frame, t);
+            int to = Math.min(255, frame.overruns().get(t));
+            float tsp = (float) tank.speed();
+            float tms = (float) tank.maxSpeed();
+            boolean labels = team[t] != tank.team() || !name[t].equals(nonNull(tank.name()))
+                    || !ai[t].equals(nonNull(frame.ais().get(t)));
+
+            int mask = (tx != x[t] || ty != y[t] ? 1 : 0)
+                    | (ta != angle[t] ? 1 << 1 : 0)
+                    | (tank.health() != health[t] ? 1 << 2 : 0)
+                    | (ts != state[t] ? 1 << 3 : 0)
+                    | (to != overruns[t] ? 1 << 4 : 0)
+                    | (tsp != speed[t] ? 1 << 5 : 0)
+                    | (tms != maxSpeed[t] ? 1 << 6 : 0)
+                    | (labels ? 1 << 7 : 0);
+            if (mask == 0) {
+                continue;
+            }
+
+            changed++;
+            buffer.put((byte) t).put((byte) mask);
+            if ((mask & 1) != 0) {
+                buffer.putFloat(tx).putFloat(ty);
+            }
+            if ((mask & 1 << 1) != 0) {
+                buffer.putShort((short) ta);
+            }
+            if ((mask & 1 << 2) != 0) {
+                buffer.putShort((short) tank.health());
+            }
+            if ((mask & 1 << 3) != 0) {
+                buffer.put((byte) ts);
+            }
+            if ((mask & 1 << 4) != 0) {
+                buffer.put((byte) to);
+            }
+            if ((mask & 1 << 5) != 0) {
+                buffer.putFloat(tsp);
+            }
+            if ((mask & 1 << 6) != 0) {
+                buffer.putFloat(tms);
+            }
+            if (labels) {
+                buffer.put((byte) tank.team());
+                putString(tank.name());
+                putString(frame.ais().get(t));
+            }
+        }
+        buffer.put(countAt, (byte) changed);
+
+        // Номера пуль растут: новые - с номером больше последнего известного
+        int lastKnownId = idCount > 0 ? ids[idCount - 1] : -1;
+        int spawnedAt = buffer.position();
+        buffer.putShort((short) 0);
+        int spawned = 0;
+        for (int i = 0; i < bullets.size(); i++) {
+            if (bullets.id(i) > lastKnownId) {
+                putBullet(bullets, i);
+                spawned++;
+            }
+        }
+        buffer.putShort(spawnedAt, (short) spawned);
+
+        int[] current = sortedIds(bullets);
+        int removedAt = buffer.position();
+        buffer.putShort((short) 0);
+        int removed = 0;
+        for (int i = 0; i < idCount; i++) {
+            if (Arrays.binarySearch(current, 0, bullets.size(), ids[i]) < 0) {
+                buffer.putInt(ids[i]);
+                removed++;
+            }
+        }
+        buffer.putShort(removedAt, (short) removed);
+    }
+
+    private void remember(MatchFrame frame) {
+        int n = frame.tanks().size();
+        if (n != tankCount) {
+            tankCount = n;
+            x = new float[n];
+            y = new float[n];
+            angle = new int[n];
+            health = new int[n];
+            state = new int[n];
+            overruns = new int[n];
+            speed = new float[n];
+            maxSpeed = new float[n];
+            team = new int[n];
+            name = new String[n];
+            ai = new String[n];
+        }
+        for (int t = 0; t < n; t++) {
+            TankState tank = frame.tanks().get(t);
+            x[t] = (float) tank.x();
+            y[t] = (float) tank.y();
+            angle[t] = encodeAngle(tank.angle());
+            health[t] = tank.health();
+            state[t] = encodeState(frame, t);
+            overruns[t] = Math.min(255, frame.overruns().get(t));
+            speed[t] = (float) tank.speed();
+            maxSpeed[t] = (float) tank.maxSpeed();
+            team[t] = tank.team();
+            name[t] = nonNull(tank.name());
+            ai[t] = nonNull(frame.ais().get(t));
+        }
+
+        int[] sorted = sortedIds(frame.bullets());
+        idCount = frame.bullets().size();
+        if (ids.length < idCount) {
+            ids = new int[sorted.length];
+        }
+        System.arraycopy(sorted, 0, ids, 0, idCount);
+        last = frame;
+    }
+
+    private void putBullet(BulletView bullets, int i) {
+        buffer.putInt(bullets.id(i))
+                .putFloat((float) bullets.x(i))
+                .putFloat((float) bullets.y(i))
+                .putFloat((float) bullets.dx(i))
+                .putFloat((float) bullets.dy(i));
+    }
+
+    private void putString(String value) {
+        String text = nonNull(value);
+        if (text.length() > MAX_NAME_CHARS) {
+            text = text.substring(0, MAX_NAME_CHARS);
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(255, bytes.length);
+        buffer.put((byte) length).put(bytes, 0, length);
+    }
+
+    // Номера пуль по возрастанию во внутреннем массиве (значимы первые bullets.size() элементов)
+    private int[] sortedIds(BulletView bullets) {
+        int n = bullets.size();
+        if (currentIds.length < n) {
+            currentIds = new int[Math.max(n, currentIds.length * 2)];
+        }
+        for (int i = 0; i < n; i++) {
+            currentIds[i] = bullets.id(i);
+        }
+        Arrays.sort(currentIds, 0, n);
+        return currentIds;
+    }
+
+    private byte[] toBytes() {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private static int encodeState(MatchFrame frame, int t) {
+        TankState tank = frame.tanks().get(t);
+        return (tank.alive() ? 1 : 0) | (tank.canShoot() ? 2 : 0) | (frame.suspended().get(t) ? 4 : 0);
+    }
+
+    private static int encodeAngle(double degrees) {
+        double normalized = degrees % 360;
+        if (normalized < 0) {
+            normalized += 360;
+        }
+        return (int) Math.round(normalized * 65536 / 360) & 0xFFFF;
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.my.engine;
+
+import jakarta.annotation.PreDestroy;
+import org.example.my.ai.CarAI;
+import org.example.my.ai.DynamicCarAI;
+import org.example.my.model.CarAction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сторож решений AI. Решения недоверенных AI (загруженных пользователем) выполняются
+ * в отдельных потоках с бюджетом времени: если AI не уложился, тик идет дальше с действием по умолчанию.
+ * Просрочка засчитывается AI, только если он сам израсходовал бюджет процессорного времени
+ * (ThreadMXBean), а не просто ждал занятого процессора. Решение, которое не закончилось
+ * за stall-ticks тиков по часам (AI спит, ждет блокировку или ввод-вывод), прерывается и тоже засчитывается.
+ */
+@Component
+public class DecisionWatchdog {
+
+    private final long budgetNanos;
+    private final long stallNanos;
+    private final int maxOverruns;
+    private final boolean guardBuiltIn;
+    private final ThreadPoolExecutor executor;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported;
+
+    private final Map<String, AIStats> stats = new ConcurrentHashMap<>();
+
+    public DecisionWatchdog(@Value("${game.ai.budget-ms:5}") long budgetMillis,
+                            @Value("${game.ai.max-overruns:5}") int maxOverruns,
+                            @Value("${game.ai.guard-built-in:false}") boolean guardBuiltIn,
+                            @Value("${game.ai.watchdog-threads:256}") int maxThreads,
+                            @Value("${game.ai.stall-ticks:3}") int stallTicks,
+                            @Value("${game.loop.tick-rate:60}") int tickRate) {
+        long tickNanos = 1_000_000_000L / Math.max(1, tickRate);
+        long budget = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        if (budget >= tickNanos) {
+            // Поток шарда ждет решения в пределах бюджета: бюджет не меньше тика сорвал бы расписание всех его боев
+            budget = tickNanos / 2;
+            System.err.printf("⚠️ game.ai.budget-ms=%d does not fit a %d ms tick, using %d µs%n",
+                    budgetMillis, TimeUnit.NANOSECONDS.toMillis(tickNanos), TimeUnit.NANOSECONDS.toMicros(budget));
+        }
+        this.budgetNanos = budget;
+        this.stallNanos = Math.max(1, stallTicks) * tickNanos;
+        this.maxOverruns = maxOverruns;
+        this.guardBuiltIn = guardBuiltIn;
+
+        // Зависший AI держит свой поток, пока не закончит; новые потоки создаются по мере надобности
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "ai-watchdog-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported();
+        if (cpuTimeSupported && !threads.isThreadCpuTimeEnabled()) {
+            threads.setThreadCpuTimeEnabled(true);
+        }
+
+        System.out.printf("🐕 AI watchdog: budget %d µs, stalled after %d ms, suspend after %d overruns, guard built-in AIs: %s%n",
+                TimeUnit.NANOSECONDS.toMicros(budgetNanos), TimeUnit.NANOSECONDS.toMillis(stallNanos), maxOverruns, guardBuiltIn);
+    }
+
+    /**
+     * Нужно ли выполнять решения этого AI под присмотром
+     */
+    public boolean guards(CarAI ai) {
+        return guardBuiltIn || ai instanceof DynamicCarAI;
+    }
+
+    /**
+     * Запускает решение в отдельном потоке. Если свободных потоков нет, пул отклоняет задачу
+     * (RejectedExecutionException) - вызывающий использует действие по умолчанию.
+     */
+    public Decision submit(String aiName, Callable<CarAction> decision) {
+        Decision guarded = new Decision(statsFor(aiName), decision);
+        executor.execute(guarded.task);
+        return guarded;
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Сколько решение может идти по часам, прежде чем его прервут как зависшее
+     */
+    public long getStallNanos() {
+        return stallNanos;
+    }
+
+    public int getMaxOverruns() {
+        return maxOverruns;
+    }
+
+    public void recordLate(String aiName) {
+        statsFor(aiName).late.increment();
+    }
+
+    public void recordOverrun(String aiName) {
+        statsFor(aiName).overruns.increment();
+    }
+
+    public void recordForfeit(String aiName) {
+        statsFor(aiName).forfeits.increment();
+    }
+
+    /**
+     * Статистика по каждому AI, которого видел сторож
+     */
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        stats.forEach((name, s) -> {
+            long decisions = s.decisions.sum();
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("ai", name);
+            info.put("decisions", decisions);
+            info.put("late", s.late.sum());
+            info.put("overruns", s.overruns.sum());
+            info.put("forfeits", s.forfeits.sum());
+            info.put("avgCpuMicros", decisions > 0 ? s.cpuNanos.sum() / decisions / 1_000 : 0);
+            info.put("maxCpuMicros", s.maxCpuNanos.get() / 1_000);
+            result.add(info);
+        });
+        return result;
+    }
+
+    public int getActiveThreads() {
+        return executor.getActiveCount();
+    }
+
+    private AIStats statsFor(String aiName) {
+        return stats.computeIfAbsent(aiName, name -> new AIStats());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Решение, выполняемое под присмотром
+     */
+    public final class Decision {
+
+        private final FutureTask<CarAction> task;
+        private final long startedNanos = System.nanoTime();
+        private volatile long threadId = -1;
+        private volatile long startCpuNanos;
+        private volatile long cpuNanos = -1;
+
+        private Decision(AIStats aiStats, Callable<CarAction> decision) {
+            this.task = new FutureTask<>(() -> {
+                threadId = Thread.currentThread().getId();
+                startCpuNanos = currentCpuNanos();
+                try {
+                    return decision.call();
+                } finally {
+                    cpuNanos = currentCpuNanos() - startCpuNanos;
+                    aiStats.decisions.increment();
+                    aiStats.cpuNanos.add(cpuNanos);
+                    aiStats.maxCpuNanos.accumulate(cpuNanos);
+                }
+            });
+        }
+
+        /**
+         * Ждет результат не дольше timeoutNanos
+         */
+        public CarAction await(long timeoutNanos) throws InterruptedException, ExecutionException, TimeoutException {
+            return task.get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+        }
+
+        public boolean isDone() {
+            return task.isDone();
+        }
+
+        public long getStartedNanos() {
+            return startedNanos;
+        }
+
+        /**
+         * Процессорное время, которое решение уже израсходовало (в том числе еще идущее)
+         */
+        public long cpuNanos() {
+            long finished = cpuNanos;
+            if (finished >= 0) {
+                return finished;
+            }
+            long id = threadId;
+            if (id < 0) {
+                return 0;
+            }
+            long now = cpuTimeSupported ? threads.getThreadCpuTime(id) : System.nanoTime();
+            return now < 0 ? 0 : now - startCpuNanos;
+        }
+
+        public void cancel() {
+            task.cancel(true);
+        }
+    }
+
+    private long currentCpuNanos() {
+        return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static final class AIStats {
+        private final LongAdder decisions = new LongAdder();
+        private final LongAdder late = new LongAdder();
+        private final LongAdder overruns = new LongAdder();
+        private final LongAdder forfeits = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAccumulator maxCpuNanos = new LongAccumulator(Math::max, 0);
+    }
+}
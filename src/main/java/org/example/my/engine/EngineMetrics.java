@@ -0,0 +1,68 @@
+package org.example.my.engine;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Точки измерения движка. Движок не знает о Micrometer: реализацию подставляет MatchRegistry,
+ * а без нее (турниры, пакетные прогоны) используется NOOP.
+ */
+public interface EngineMetrics {
+
+    /**
+     * Фазы тика
+     */
+    enum Phase {
+        AI, PHYSICS, HITS
+    }
+
+    EngineMetrics NOOP = new EngineMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordPhase(Phase phase, long nanos) {
+        }
+
+        @Override
+        public void recordTick(long nanos, long allocatedBytes) {
+        }
+
+        @Override
+        public void recordDecision(String aiName, long nanos) {
+        }
+
+        @Override
+        public void recordStateBuild(long nanos) {
+        }
+    };
+
+    /**
+     * false - движок может не замерять время вовсе
+     */
+    boolean isEnabled();
+
+    void recordPhase(Phase phase, long nanos);
+
+    /**
+     * allocatedBytes - сколько байт выделил поток матча за тик, -1 если неизвестно
+     */
+    void recordTick(long nanos, long allocatedBytes);
+
+    void recordDecision(String aiName, long nanos);
+
+    void recordStateBuild(long nanos);
+
+    /**
+     * Сколько байт выделил текущий поток за все время, -1 если JVM этого не умеет
+     */
+    static long currentThreadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemoryEnabled()) {
+            return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.my.engine;
+
+/**
+ * Цикл с фиксированным шагом симуляции.
+ * Считает, сколько тиков нужно выполнить к текущему моменту времени,
+ * и ограничивает догон, если сервер отстал от расписания.
+ */
+public class FixedTimestepLoop {
+
+    /**
+     * Что делать с тиками, которые не поместились в один проход
+     */
+    public enum CatchUpPolicy {
+        /**
+         * Догоняем расписание в следующих проходах (игра временно ускоряется)
+         */
+        CATCH_UP,
+
+        /**
+         * Отбрасываем отставание (игра временно замедляется, но не "прыгает")
+         */
+        SKIP
+    }
+
+    private final long tickNanos;
+    private final int maxTicksPerAdvance;
+    private final CatchUpPolicy policy;
+
+    private long lastNanos = -1L;
+    private long accumulator = 0L;
+    private long skippedTicks = 0L;
+
+    public FixedTimestepLoop(int tickRate, int maxTicksPerAdvance, CatchUpPolicy policy) {
+        if (tickRate < 1) {
+            throw new IllegalArgumentException("Tick rate must be positive, got " + tickRate);
+        }
+        if (maxTicksPerAdvance < 1) {
+            throw new IllegalArgumentException("Max ticks per advance must be positive, got " + maxTicksPerAdvance);
+        }
+        this.tickNanos = 1_000_000_000L / tickRate;
+        this.maxTicksPerAdvance = maxTicksPerAdvance;
+        this.policy = policy;
+    }
+
+    /**
+     * Возвращает количество тиков, которые нужно выполнить к моменту nowNanos
+     */
+    public int advance(long nowNanos) {
+        if (lastNanos < 0) {
+            lastNanos = nowNanos;
+            return 0;
+        }
+
+        accumulator += nowNanos - lastNanos;
+        lastNanos = nowNanos;
+
+        long due = accumulator / tickNanos;
+        if (due <= maxTicksPerAdvance) {
+            accumulator -= due * tickNanos;
+            return (int) due;
+        }
+
+        accumulator -= maxTicksPerAdvance * tickNanos;
+        if (policy == CatchUpPolicy.SKIP) {
+            skippedTicks += accumulator / tickNanos;
+            accumulator %= tickNanos;
+        }
+        return maxTicksPerAdvance;
+    }
+
+    /**
+     * Сбрасывает накопленное время (например, при старте новой игры)
+     */
+    public void reset() {
+        lastNanos = -1L;
+        accumulator = 0L;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+}
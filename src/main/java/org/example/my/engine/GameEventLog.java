@@ -0,0 +1,250 @@
+package org.example.my.engine;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Журнал событий движка. Поток тика только кладет шаблон и аргументы в кольцевой буфер без блокировок;
+ * строки форматирует и пишет в SLF4J отдельный фоновый поток.
+ * Если буфер переполнен, событие отбрасывается: тик никогда не ждет журнал.
+ */
+@Component
+public class GameEventLog {
+
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR
+    }
+
+    public enum Category {
+        LIFECYCLE, AI, STATS, SHOOT, HIT, COLLISION, WATCHDOG, TICK
+    }
+
+    /**
+     * Журнал, который ничего не пишет (движки без Spring, турниры)
+     */
+    public static final GameEventLog DISABLED = new GameEventLog();
+
+    private static final long IDLE_PARK_NANOS = 1_000_000L;
+
+    private final boolean enabled;
+    private final int[] minLevel = new int[Category.values().length];
+    private final int[] sampleEvery = new int[Category.values().length];
+    private final AtomicLongArray sampleCounters = new AtomicLongArray(Category.values().length);
+    private final Logger[] loggers = new Logger[Category.values().length];
+
+    // Кольцевой буфер: много писателей (потоки матчей), один читатель (поток сброса)
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head = 0;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread drainThread;
+    private volatile boolean running;
+
+    private GameEventLog() {
+        this.enabled = false;
+        this.slots = new Slot[0];
+        this.mask = 0;
+        this.drainThread = null;
+    }
+
+    /**
+     * levels и sampling - списки вида "HIT=DEBUG,SHOOT=TRACE" и "SHOOT=10" (писать каждое 10-е событие)
+     */
+    @Autowired
+    public GameEventLog(@Value("${game.log.level:INFO}") Level defaultLevel,
+                        @Value("${game.log.levels:}") String levels,
+                        @Value("${game.log.sampling:}") String sampling,
+                        @Value("${game.log.buffer-size:8192}") int bufferSize) {
+        this.enabled = true;
+
+        Map<Category, String> levelOverrides = parse(levels);
+        Map<Category, String> samplingOverrides = parse(sampling);
+        for (Category category : Category.values()) {
+            String level = levelOverrides.get(category);
+            minLevel[category.ordinal()] = (level != null ? Level.valueOf(level.toUpperCase()) : defaultLevel).ordinal();
+            String every = samplingOverrides.get(category);
+            sampleEvery[category.ordinal()] = every != null ? Math.max(1, Integer.parseInt(every)) : 1;
+            loggers[category.ordinal()] = LoggerFactory.getLogger("game.events." + category.name().toLowerCase());
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize) * 2 - 1);
+        this.slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(i);
+        }
+        this.mask = capacity - 1;
+
+        this.running = true;
+        this.drainThread = new Thread(this::drainLoop, "game-event-log");
+        drainThread.setDaemon(true);
+        drainThread.start();
+
+        System.out.printf("📝 Game event log: level %s, overrides [%s], sampling [%s], buffer %d%n",
+                defaultLevel, levels, sampling, capacity);
+    }
+
+    /**
+     * Нужно ли писать событие. Учитывает уровень и выборку категории, поэтому вызывается
+     * ровно один раз на событие и до подготовки аргументов: отфильтрованное событие ничего не стоит.
+     */
+    public boolean shouldLog(Level level, Category category) {
+        int c = category.ordinal();
+        if (!enabled || level.ordinal() < minLevel[c]) {
+            return false;
+        }
+        int every = sampleEvery[c];
+        return every == 1 || sampleCounters.getAndIncrement(c) % every == 0;
+    }
+
+    /**
+     * Кладет событие в буфер. Шаблон в формате printf, форматируется в фоновом потоке.
+     */
+    public void publish(Level level, Category category, String source, long tick, String template, Object... args) {
+        if (!enabled) {
+            return;
+        }
+
+        long pos = tail.get();
+        Slot slot;
+        while (true) {
+            slot = slots[(int) (pos & mask)];
+            long diff = slot.sequence - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // Буфер полон: читатель еще не освободил ячейку
+                dropped.increment();
+                return;
+            } else {
+                pos = tail.get();
+            }
+        }
+
+        slot.level = level;
+        slot.category = category;
+        slot.source = source;
+        slot.tick = tick;
+        slot.template = template;
+        slot.args = args;
+        slot.sequence = pos + 1;
+        published.increment();
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (!drainOne()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        while (drainOne()) {
+            // Дописываем то, что осталось в буфере при остановке
+        }
+    }
+
+    private boolean drainOne() {
+        Slot slot = slots[(int) (head & mask)];
+        if (slot.sequence != head + 1) {
+            return false;
+        }
+
+        Level level = slot.level;
+        Category category = slot.category;
+        String source = slot.source;
+        long tick = slot.tick;
+        String template = slot.template;
+        Object[] args = slot.args;
+        slot.args = null;
+        slot.source = null;
+        slot.sequence = head + slots.length;
+        head++;
+
+        write(level, category, source, tick, template, args);
+        return true;
+    }
+
+    private void write(Level level, Category category, String source, long tick, String template, Object[] args) {
+        Logger logger = loggers[category.ordinal()];
+        String message;
+        try {
+            message = String.format("[%s t=%d] %s", source, tick, args.length == 0 ? template : String.format(template, args));
+        } catch (RuntimeException e) {
+            message = String.format("[%s t=%d] %s (bad format: %s)", source, tick, template, e.getMessage());
+        }
+
+        switch (level) {
+            case TRACE -> logger.trace(message);
+            case DEBUG -> logger.debug(message);
+            case INFO -> logger.info(message);
+            case WARN -> logger.warn(message);
+            case ERROR -> logger.error(message);
+        }
+    }
+
+    private static Map<Category, String> parse(String spec) {
+        Map<Category, String> result = new EnumMap<>(Category.class);
+        if (spec == null || spec.isBlank()) {
+            return result;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected CATEGORY=VALUE, got: " + entry);
+            }
+            result.put(Category.valueOf(parts[0].trim().toUpperCase()), parts[1].trim());
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (drainThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(drainThread);
+        try {
+            drainThread.join(1_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Slot {
+        private volatile long sequence;
+        private Level level;
+        private Category category;
+        private String source;
+        private long tick;
+        private String template;
+        private Object[] args;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
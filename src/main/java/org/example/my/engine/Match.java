@@ -0,0 +1,164 @@
+package org.example.my.engine;
+
+import org.example.my.controller.GameEngine;
+import org.example.my.model.MatchFrame;
+
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Один изолированный бой: собственный движок, собственный цикл тиков
+ * и закрепленный за ним рабочий поток (шард)
+ */
+public class Match {
+
+    private static final String TOPIC_PREFIX = "/topic/match/";
+
+    private final String id;
+    private final GameEngine engine;
+    private final FixedTimestepLoop loop;
+    private final int shard;
+    private final MatchBroadcaster broadcaster;
+    private final MatchFrameEncoder frames;
+    private final BinaryFrameEncoder binaryFrames;
+    private final int broadcastEveryTicks;
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile ScheduledFuture<?> future;
+    private volatile long ticks = 0L;
+    private volatile long lastTickNanos = 0L;
+    private volatile long maxTickNanos = 0L;
+    private int ticksSinceBroadcast = 0;
+    // Кадр с концом боя уже отправлен (после победы бой остается запущенным до перезапуска)
+    private boolean gameOverBroadcast = false;
+
+    /**
+     * broadcastEveryTicks - кадр зрителям отправляется раз в столько тиков;
+     * промежуточные положения клиент восстанавливает сам (интерполяция по номерам тиков)
+     */
+    public Match(String id, GameEngine engine, FixedTimestepLoop loop, int shard,
+                 MatchBroadcaster broadcaster, int keyframeInterval, int broadcastEveryTicks) {
+        this.id = id;
+        this.engine = engine;
+        this.loop = loop;
+        this.shard = shard;
+        this.broadcaster = broadcaster;
+        this.broadcastEveryTicks = Math.max(1, broadcastEveryTicks);
+        int tickRate = (int) Math.round(1_000_000_000.0 / loop.getTickNanos());
+        this.frames = new MatchFrameEncoder(keyframeInterval, tickRate);
+        this.binaryFrames = new BinaryFrameEncoder(keyframeInterval, tickRate);
+    }
+
+    /**
+     * Вызывается только потоком своего шарда, поэтому тики одного боя никогда не пересекаются
+     */
+    void runDueTicks() {
+        try {
+            if (!engine.isGameRunning()) {
+                loop.reset();
+                return;
+            }
+
+            int due = loop.advance(System.nanoTime());
+            for (int i = 0; i < due; i++) {
+                long start = System.nanoTime();
+                engine.updateGame();
+                long elapsed = System.nanoTime() - start;
+
+                lastTickNanos = elapsed;
+                if (elapsed > maxTickNanos) {
+                    maxTickNanos = elapsed;
+                }
+                ticks++;
+            }
+
+            // Зрителям - только последнее состояние, даже если пришлось догонять несколько тиков.
+            // Последний тик боя (победа, ничья) отправляется сразу, не дожидаясь очередного кадра
+            ticksSinceBroadcast += due;
+            if (due > 0) {
+                boolean gameOver = engine.isGameOver();
+                if (ticksSinceBroadcast >= broadcastEveryTicks || !engine.isGameRunning()
+                        || gameOver && !gameOverBroadcast) {
+                    ticksSinceBroadcast = 0;
+                    broadcaster.broadcast(this);
+                }
+                gameOverBroadcast = gameOver;
+            }
+        } catch (Exception e) {
+            // Исключение не должно отменить расписание боя
+            System.err.println("❌ Tick failed in match " + id + ": " + e.getMessage());
+        }
+    }
+
+    void attach(ScheduledFuture<?> future) {
+        this.future = future;
+    }
+
+    void shutdown() {
+        ScheduledFuture<?> f = future;
+        if (f != null) {
+            f.cancel(false);
+        }
+        engine.stopGame();
+        broadcaster.broadcastRemoved(this);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public String getTopic() {
+        return TOPIC_PREFIX + id;
+    }
+
+    /**
+     * Следующий кадр для зрителей (полный или дельта) в JSON и в двоичном виде.
+     * Вызываются потоком шарда после тиков; у каждого вида своя нумерация кадров.
+     */
+    Map<String, Object> nextFrame(MatchFrame frame) {
+        return frames.next(frame);
+    }
+
+    byte[] nextBinaryFrame(MatchFrame frame) {
+        return binaryFrames.next(frame);
+    }
+
+    /**
+     * Полный кадр с номером последнего разосланного - для нового или отставшего зрителя
+     */
+    public Map<String, Object> keyframe() {
+        return frames.keyframe(engine::captureFrame);
+    }
+
+    public byte[] binaryKeyframe() {
+        return binaryFrames.keyframe(engine::captureFrame);
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    public long getSkippedTicks() {
+        return loop.getSkippedTicks();
+    }
+}
@@ -0,0 +1,240 @@
+package org.example.my.engine;
+
+import jakarta.annotation.PreDestroy;
+import org.example.my.model.MatchFrame;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Рассылает состояние боя зрителям. Два вида доставки:
+ * JSON через STOMP-топик /topic/match/{id} (удобно для отладки)
+ * и двоичные кадры (BinaryFrameEncoder) напрямую по WebSocket /ws-game-bin.
+ * Кадр каждого вида собирается и сериализуется один раз на тик и отдается всем его зрителям.
+ * Боям без зрителей кадры не собираются вообще.
+ * Двоичные кадры уходят через очереди зрителей (SpectatorSession) и пул рассылки:
+ * медленный зритель теряет устаревшие кадры, но не задерживает ни бой, ни других зрителей.
+ */
+@Component
+public class MatchBroadcaster {
+
+    private final SimpMessageSendingOperations messaging;
+    private final EngineMetrics metrics;
+    private final int sendTimeLimitMillis;
+    private final int queueCapacity;
+    private final ExecutorService sender;
+
+    // Подписчики по топикам и подписки каждой STOMP-сессии (для отписки и отключения)
+    private final Map<String, Integer> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+    // Зрители двоичных кадров по номерам боев
+    private final Map<String, Set<SpectatorSession>> binaryViewers = new ConcurrentHashMap<>();
+
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder framesDropped = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public MatchBroadcaster(SimpMessageSendingOperations messaging,
+                            EngineMetrics metrics,
+                            @Value("${game.broadcast.send-time-limit-ms:1000}") int sendTimeLimitMillis,
+                            @Value("${game.broadcast.queue-capacity:8}") int queueCapacity,
+                            @Value("${game.broadcast.send-threads:0}") int sendThreads) {
+        this.messaging = messaging;
+        this.metrics = metrics;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.queueCapacity = queueCapacity;
+
+        int threads = sendThreads > 0 ? sendThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "spectator-send-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Отправляет текущее состояние боя, если его кто-то смотрит. Вызывается потоком шарда после тиков.
+     */
+    public void broadcast(Match match) {
+        boolean json = hasSubscribers(match.getTopic());
+        Set<SpectatorSession> viewers = binaryViewers.get(match.getId());
+        boolean binary = viewers != null && !viewers.isEmpty();
+        if (!json && !binary) {
+            return;
+        }
+
+        // Сборка кадра (снимок и кодирование, без отправки) - это стоимость состояния для зрителей на тик
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        MatchFrame frame = match.getEngine().captureFrame();
+        Map<String, Object> jsonFrame = json ? match.nextFrame(frame) : null;
+        byte[] bytes = binary ? match.nextBinaryFrame(frame) : null;
+        if (metrics.isEnabled()) {
+            metrics.recordStateBuild(System.nanoTime() - start);
+        }
+
+        if (json) {
+            messaging.convertAndSend(match.getTopic(), jsonFrame);
+        }
+        if (binary) {
+            for (SpectatorSession viewer : viewers) {
+                viewer.offer(bytes, match::binaryKeyframe);
+            }
+        }
+    }
+
+    /**
+     * Сообщает зрителям, что бой удален, и закрывает двоичные соединения
+     */
+    public void broadcastRemoved(Match match) {
+        if (hasSubscribers(match.getTopic())) {
+            messaging.convertAndSend(match.getTopic(), Map.of("matchId", match.getId(), "removed", true));
+        }
+        Set<SpectatorSession> viewers = binaryViewers.remove(match.getId());
+        if (viewers != null) {
+            byte[] removed = BinaryFrameEncoder.removed();
+            for (SpectatorSession viewer : viewers) {
+                viewer.finish(removed);
+            }
+        }
+    }
+
+    /**
+     * Подключает зрителя двоичных кадров и ставит ему первым полный кадр
+     */
+    public SpectatorSession addBinaryViewer(Match match, WebSocketSession session) {
+        SpectatorSession viewer = new SpectatorSession(match.getId(), session, queueCapacity,
+                sendTimeLimitMillis, sender, this);
+        binaryViewers.computeIfAbsent(match.getId(), id -> ConcurrentHashMap.newKeySet()).add(viewer);
+        sendKeyframe(match, viewer);
+        return viewer;
+    }
+
+    /**
+     * Полный кадр по запросу зрителя (он пропустил дельту)
+     */
+    public void sendKeyframe(Match match, SpectatorSession viewer) {
+        byte[] keyframe = match.binaryKeyframe();
+        viewer.offer(keyframe, () -> keyframe);
+    }
+
+    public void removeBinaryViewer(SpectatorSession viewer) {
+        binaryViewers.computeIfPresent(viewer.getMatchId(), (id, viewers) -> {
+            viewers.remove(viewer);
+            return viewers.isEmpty() ? null : viewers;
+        });
+    }
+
+    public boolean hasSubscribers(String topic) {
+        return subscribers.containsKey(topic);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Integer::intValue).sum()
+                + binaryViewers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Кадры, ждущие отправки во всех очередях двоичных зрителей
+     */
+    public int getQueuedFrames() {
+        return binaryViewers.values().stream().flatMap(Set::stream).mapToInt(SpectatorSession::getDepth).sum();
+    }
+
+    public int getMaxQueueDepth() {
+        return binaryViewers.values().stream().flatMap(Set::stream).mapToInt(SpectatorSession::getDepth).max().orElse(0);
+    }
+
+    public long getFramesSent() {
+        return framesSent.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getFramesDropped() {
+        return framesDropped.sum();
+    }
+
+    public long getResyncs() {
+        return resyncs.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    void onSent(int bytes) {
+        framesSent.increment();
+        bytesSent.add(bytes);
+    }
+
+    // Очередь зрителя переполнилась: dropped кадров выброшено, вместо них ушел полный кадр
+    void onDropped(int dropped) {
+        framesDropped.add(dropped);
+        resyncs.increment();
+    }
+
+    void onFailed(SpectatorSession viewer) {
+        failures.increment();
+        removeBinaryViewer(viewer);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String destination = headers.getDestination();
+        if (destination == null || headers.getSessionId() == null || headers.getSubscriptionId() == null) {
+            return;
+        }
+        sessions.computeIfAbsent(headers.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(headers.getSubscriptionId(), destination);
+        subscribers.merge(destination, 1, Integer::sum);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = headers.getSessionId() != null ? sessions.get(headers.getSessionId()) : null;
+        if (subscriptions != null && headers.getSubscriptionId() != null) {
+            release(subscriptions.remove(headers.getSubscriptionId()));
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void release(String destination) {
+        if (destination != null) {
+            subscribers.computeIfPresent(destination, (topic, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.my.engine;
+
+import org.example.my.model.BulletView;
+import org.example.my.model.MatchFrame;
+import org.example.my.model.TankState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Кадры для зрителей одного боя: полный кадр (keyframe) раз в keyframeInterval кадров
+ * и между ними дельты - только изменившиеся поля танков, появившиеся и исчезнувшие пули.
+ * Пули летят по прямой, поэтому после появления клиент двигает их сам на dx/dy за тик.
+ * Каждый кадр имеет номер seq; дельта применяется только к кадру seq - 1,
+ * пропустивший кадр клиент запрашивает полный кадр (keyframe()).
+ * Метка времени кадра - номер тика; полный кадр сообщает частоту тиков (tickRate),
+ * чтобы клиент мог перевести тики в свое время и рисовать между кадрами.
+ */
+public class MatchFrameEncoder {
+
+    private static final double POSITION_SCALE = 100;
+    private static final double VELOCITY_SCALE = 10_000;
+
+    private final int keyframeInterval;
+    private final int tickRate;
+
+    // Последний отправленный кадр
+    private Sent last;
+    private long seq = -1;
+    private int sinceKeyframe = 0;
+
+    public MatchFrameEncoder(int keyframeInterval, int tickRate) {
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+        this.tickRate = tickRate;
+    }
+
+    /**
+     * Кадр для очередной рассылки: полный, если пришло время, сменился раунд боя
+     * или предыдущего кадра нет, иначе дельта к предыдущему
+     */
+    public synchronized Map<String, Object> next(MatchFrame frame) {
+        Sent previous = last;
+        List<Map<String, Object>> tanks = encodeTanks(frame);
+        seq++;
+
+        boolean keyframe = previous == null
+                || previous.frame.round() != frame.round()
+                || previous.tanks.size() != tanks.size()
+                || ++sinceKeyframe >= keyframeInterval;
+
+        Sent current = new Sent(seq, frame, tanks, sortedIds(frame.bullets()));
+        last = current;
+        if (keyframe) {
+            sinceKeyframe = 0;
+            return encodeKeyframe(current);
+        }
+        return encodeDelta(previous, current);
+    }
+
+    /**
+     * Полный кадр с последним отправленным номером (для нового или отставшего клиента).
+     * Если кадров еще не было, первым кадром становится текущее состояние боя.
+     */
+    public synchronized Map<String, Object> keyframe(Supplier<MatchFrame> current) {
+        return last != null ? encodeKeyframe(last) : next(current.get());
+    }
+
+    private Map<String, Object> encodeKeyframe(Sent sent) {
+        MatchFrame frame = sent.frame;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("type", "key");
+        result.put("seq", sent.seq);
+        result.put("tick", frame.tick());
+        result.put("tickRate", tickRate);
+        result.put("round", frame.round());
+        result.put("mode", frame.mode().name());
+        result.put("seed", frame.seed());
+        result.put("gameRunning", frame.running());
+        result.put("gameOver", frame.gameOver());
+        result.put("winner", frame.winner());
+        result.put("tanks", sent.tanks);
+
+        BulletView bullets = frame.bullets();
+        List<Map<String, Object>> bulletData = new ArrayList<>(bullets.size());
+        for (int i = 0; i < bullets.size(); i++) {
+            bulletData.add(encodeBullet(bullets, i));
+        }
+        result.put("bullets", bulletData);
+        return result;
+    }
+
+    private Map<String, Object> encodeDelta(Sent previous, Sent current) {
+        MatchFrame frame = current.frame;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("type", "delta");
+        result.put("seq", current.seq);
+        result.put("tick", frame.tick());
+
+        // Флаги боя меняются редко - только если изменились
+        if (previous.frame.running() != frame.running()) {
+            result.put("gameRunning", frame.running());
+        }
+        if (previous.frame.gameOver() != frame.gameOver()) {
+            result.put("gameOver", frame.gameOver());
+        }
+        if (previous.frame.winner() != frame.winner()) {
+            result.put("winner", frame.winner());
+        }
+
+        List<Map<String, Object>> changedTanks = new ArrayList<>();
+        for (int t = 0; t < current.tanks.size(); t++) {
+            Map<String, Object> before = previous.tanks.get(t);
+            Map<String, Object> changed = null;
+            for (Map.Entry<String, Object> field : current.tanks.get(t).entrySet()) {
+                if (!Objects.equals(before.get(field.getKey()), field.getValue())) {
+                    if (changed == null) {
+                        changed = new HashMap<>();
+                        changed.put("id", t);
+                    }
+                    changed.put(field.getKey(), field.getValue());
+                }
+            }
+            if (changed != null) {
+                changedTanks.add(changed);
+            }
+        }
+        if (!changedTanks.isEmpty()) {
+            result.put("tanks", changedTanks);
+        }
+
+        // Номера пуль растут, поэтому новые пули - с номером больше последнего известного
+        int lastKnownId = previous.ids.length > 0 ? previous.ids[previous.ids.length - 1] : -1;
+        BulletView bullets = frame.bullets();
+        List<Map<String, Object>> spawned = new ArrayList<>();
+        for (int i = 0; i < bullets.size(); i++) {
+            if (bullets.id(i) > lastKnownId) {
+                spawned.add(encodeBullet(bullets, i));
+            }
+        }
+        if (!spawned.isEmpty()) {
+            result.put("spawned", spawned);
+        }
+
+        List<Integer> removed = new ArrayList<>();
+        for (int id : previous.ids) {
+            if (Arrays.binarySearch(current.ids, id) < 0) {
+                removed.add(id);
+            }
+        }
+        if (!removed.isEmpty()) {
+            result.put("removed", removed);
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> encodeTanks(MatchFrame frame) {
+        List<Map<String, Object>> result = new ArrayList<>(frame.tanks().size());
+        for (int t = 0; t < frame.tanks().size(); t++) {
+            TankState tank = frame.tanks().get(t);
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", t);
+            data.put("team", tank.team());
+            data.put("name", tank.name());
+            data.put("ai", frame.ais().get(t));
+            data.put("x", round(tank.x(), POSITION_SCALE));
+            data.put("y", round(tank.y(), POSITION_SCALE));
+            data.put("angle", round(tank.angle(), POSITION_SCALE));
+            data.put("health", tank.health());
+            data.put("alive", tank.alive());
+            data.put("speed", round(tank.speed(), POSITION_SCALE));
+            data.put("maxSpeed", tank.maxSpeed());
+            data.put("canShoot", tank.canShoot());
+            data.put("overruns", frame.overruns().get(t));
+            data.put("suspended", frame.suspended().get(t));
+            result.add(data);
+        }
+        return result;
+    }
+
+    private static Map<String, Object> encodeBullet(BulletView bullets, int i) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("id", bullets.id(i));
+        data.put("x", round(bullets.x(i), POSITION_SCALE));
+        data.put("y", round(bullets.y(i), POSITION_SCALE));
+        data.put("angle", round(bullets.angle(i), POSITION_SCALE));
+        data.put("dx", round(bullets.dx(i), VELOCITY_SCALE));
+        data.put("dy", round(bullets.dy(i), VELOCITY_SCALE));
+        return data;
+    }
+
+    private static int[] sortedIds(BulletView bullets) {
+        int[] ids = new int[bullets.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = bullets.id(i);
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    // Зрителю не нужна полная точность double, а короткие числа заметно уменьшают кадр
+    private static double round(double value, double scale) {
+        return Math.round(value * scale) / scale;
+    }
+
+    private record Sent(long seq, MatchFrame frame, List<Map<String, Object>> tanks, int[] ids) {
+    }
+}
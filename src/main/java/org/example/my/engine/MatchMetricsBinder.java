@@ -0,0 +1,76 @@
+package org.example.my.engine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Гауги по всем матчам: число матчей, живых танков и пуль в полете, очереди зрителей.
+ * Значения считаются в момент чтения метрик, а не на тике.
+ */
+@Component
+public class MatchMetricsBinder implements MeterBinder {
+
+    private final MatchRegistry matchRegistry;
+    private final DecisionWatchdog watchdog;
+    private final GameEventLog eventLog;
+    private final MatchBroadcaster broadcaster;
+
+    public MatchMetricsBinder(MatchRegistry matchRegistry, DecisionWatchdog watchdog, GameEventLog eventLog,
+                              MatchBroadcaster broadcaster) {
+        this.matchRegistry = matchRegistry;
+        this.watchdog = watchdog;
+        this.eventLog = eventLog;
+        this.broadcaster = broadcaster;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("game.matches.active", matchRegistry, r -> r.getMatches().size())
+                .description("Matches hosted by this server")
+                .register(registry);
+        Gauge.builder("game.bullets.active", matchRegistry,
+                        r -> r.getMatches().stream().mapToInt(m -> m.getEngine().getBulletCount()).sum())
+                .description("Bullets in flight across all matches")
+                .register(registry);
+        Gauge.builder("game.tanks.alive", matchRegistry,
+                        r -> r.getMatches().stream().mapToInt(m -> m.getEngine().getAliveCount()).sum())
+                .description("Tanks alive across all matches")
+                .register(registry);
+        Gauge.builder("game.ai.watchdog.threads", watchdog, DecisionWatchdog::getActiveThreads)
+                .description("Watchdog threads busy with AI decisions")
+                .register(registry);
+        Gauge.builder("game.events.dropped", eventLog, GameEventLog::getDropped)
+                .description("Engine events dropped because the log buffer was full")
+                .register(registry);
+        Gauge.builder("game.viewers", broadcaster, MatchBroadcaster::getSubscriberCount)
+                .description("WebSocket subscriptions to match topics")
+                .register(registry);
+        Gauge.builder("game.viewers.queue.depth", broadcaster, MatchBroadcaster::getQueuedFrames)
+                .description("Binary frames waiting in spectator send queues")
+                .tag("stat", "total")
+                .register(registry);
+        Gauge.builder("game.viewers.queue.depth", broadcaster, MatchBroadcaster::getMaxQueueDepth)
+                .description("Binary frames waiting in spectator send queues")
+                .tag("stat", "max")
+                .register(registry);
+        FunctionCounter.builder("game.viewers.frames.sent", broadcaster, MatchBroadcaster::getFramesSent)
+                .description("Binary frames sent to spectators")
+                .register(registry);
+        FunctionCounter.builder("game.viewers.bytes.sent", broadcaster, MatchBroadcaster::getBytesSent)
+                .description("Binary frame bytes sent to spectators")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("game.viewers.frames.dropped", broadcaster, MatchBroadcaster::getFramesDropped)
+                .description("Stale frames dropped from the queues of spectators that fell behind")
+                .register(registry);
+        FunctionCounter.builder("game.viewers.resyncs", broadcaster, MatchBroadcaster::getResyncs)
+                .description("Keyframes queued in place of dropped frames")
+                .register(registry);
+        FunctionCounter.builder("game.viewers.failures", broadcaster, MatchBroadcaster::getFailures)
+                .description("Spectators disconnected because a send failed or timed out")
+                .register(registry);
+    }
+}
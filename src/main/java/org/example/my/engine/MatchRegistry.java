@@ -0,0 +1,203 @@
+package org.example.my.engine;
+
+import jakarta.annotation.PreDestroy;
+import org.example.my.ai.dynamic.CustomAIUpdatedEvent;
+import org.example.my.controller.GameEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реестр боев: создает, находит и удаляет изолированные матчи.
+ * Матчи распределяются по однопоточным шардам, число шардов по умолчанию равно числу ядер.
+ */
+@Service
+public class MatchRegistry {
+
+    private final Map<String, Match> matches = new ConcurrentHashMap<>();
+    // Занятые места под матчи: место берется до создания матча, поэтому лимит не превысят и параллельные запросы
+    private final AtomicInteger matchSlots = new AtomicInteger();
+    private final ScheduledExecutorService[] shards;
+    private final AtomicInteger[] shardLoad;
+    // Общий для всех матчей пул, на котором AI одного тика принимают решения параллельно
+    private final ExecutorService decisionPool;
+    private final int parallelThreshold;
+    private final DecisionWatchdog watchdog;
+    private final GameEventLog eventLog;
+    private final EngineMetrics metrics;
+    private final MatchBroadcaster broadcaster;
+    private final ReplayStore replays;
+
+    private final int tickRate;
+    private final int maxTicksPerRun;
+    private final FixedTimestepLoop.CatchUpPolicy policy;
+    private final int maxMatches;
+    private final int keyframeInterval;
+    private final int broadcastEveryTicks;
+    private final boolean hotSwap;
+
+    public MatchRegistry(@Value("${game.loop.tick-rate:60}") int tickRate,
+                         @Value("${game.loop.max-ticks-per-run:5}") int maxTicksPerRun,
+                         @Value("${game.loop.catch-up-policy:SKIP}") FixedTimestepLoop.CatchUpPolicy policy,
+                         @Value("${game.matches.workers:0}") int workers,
+                         @Value("${game.matches.max:1000}") int maxMatches,
+                         @Value("${game.ai.workers:0}") int aiWorkers,
+                         @Value("${game.ai.parallel-threshold:2}") int parallelThreshold,
+                         @Value("${game.broadcast.keyframe-interval:40}") int keyframeInterval,
+                         @Value("${game.broadcast.rate:20}") int broadcastRate,
+                         @Value("${game.ai.hot-swap:true}") boolean hotSwap,
+                         DecisionWatchdog watchdog,
+                         GameEventLog eventLog,
+                         EngineMetrics metrics,
+                         MatchBroadcaster broadcaster,
+                         ReplayStore replays) {
+        this.tickRate = tickRate;
+        this.maxTicksPerRun = maxTicksPerRun;
+        this.policy = policy;
+        this.maxMatches = maxMatches;
+        this.keyframeInterval = keyframeInterval;
+        this.broadcastEveryTicks = Math.max(1, Math.round((float) tickRate / Math.max(1, broadcastRate)));
+        this.hotSwap = hotSwap;
+
+        int shardCount = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.shards = new ScheduledExecutorService[shardCount];
+        this.shardLoad = new AtomicInteger[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            final int shardIndex = i;
+            shards[i] = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "match-shard-" + shardIndex);
+                thread.setDaemon(true);
+                return thread;
+            });
+            shardLoad[i] = new AtomicInteger();
+        }
+
+        int decisionThreads = aiWorkers > 0 ? aiWorkers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger decisionThreadIndex = new AtomicInteger();
+        this.decisionPool = Executors.newFixedThreadPool(decisionThreads, r -> {
+            Thread thread = new Thread(r, "ai-decision-" + decisionThreadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.parallelThreshold = parallelThreshold;
+        this.watchdog = watchdog;
+        this.eventLog = eventLog;
+        this.metrics = metrics;
+        this.broadcaster = broadcaster;
+        this.replays = replays;
+
+        System.out.printf("⏱️ Match registry: %d shards, %d ticks/s, max %d ticks per run, policy=%s, %d AI threads, frames every %d ticks%n",
+                shardCount, tickRate, maxTicksPerRun, policy, decisionThreads, broadcastEveryTicks);
+    }
+
+    /**
+     * Создает новый матч и ставит его на самый свободный шард.
+     * Если зерно не передано, выбирается случайное; с тем же зерном и теми же AI бой повторяется.
+     */
+    public Match createMatch(Long seed) {
+        if (matchSlots.getAndUpdate(taken -> taken < maxMatches ? taken + 1 : taken) >= maxMatches) {
+            throw new IllegalStateException("Too many matches, max " + maxMatches);
+        }
+        try {
+            return startMatch(seed);
+        } catch (RuntimeException e) {
+            matchSlots.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private Match startMatch(Long seed) {
+        String id = UUID.randomUUID().toString().substring(0, 8);
+        int shard = leastLoadedShard();
+
+        FixedTimestepLoop loop = new FixedTimestepLoop(tickRate, maxTicksPerRun, policy);
+        long matchSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        GameEngine engine = new GameEngine(matchSeed);
+        engine.setDecisionExecutor(decisionPool, parallelThreshold);
+        engine.setWatchdog(watchdog);
+        engine.setEventLog(eventLog, id);
+        engine.setMetrics(metrics);
+        engine.setReplayStore(replays, id);
+        Match match = new Match(id, engine, loop, shard, broadcaster, keyframeInterval, broadcastEveryTicks);
+        matches.put(id, match);
+        shardLoad[shard].incrementAndGet();
+
+        match.attach(shards[shard].scheduleAtFixedRate(
+                match::runDueTicks, loop.getTickNanos(), loop.getTickNanos(), TimeUnit.NANOSECONDS));
+
+        System.out.printf("🆕 Match %s created on shard %d (%d matches total)%n", id, shard, matches.size());
+        return match;
+    }
+
+    public Match getMatch(String id) {
+        return matches.get(id);
+    }
+
+    public Collection<Match> getMatches() {
+        return Collections.unmodifiableCollection(matches.values());
+    }
+
+    /**
+     * Останавливает матч и освобождает его место на шарде
+     */
+    public boolean removeMatch(String id) {
+        Match match = matches.remove(id);
+        if (match == null) {
+            return false;
+        }
+        match.shutdown();
+        shardLoad[match.getShard()].decrementAndGet();
+        matchSlots.decrementAndGet();
+        System.out.printf("🗑️ Match %s removed (%d matches left)%n", id, matches.size());
+        return true;
+    }
+
+    /**
+     * Перезагруженный AI подменяется во всех матчах, где играет его прежняя версия.
+     * Подмена только ставится в очередь движка: ни этот поток, ни шарды не ждут друг друга.
+     */
+    @EventListener
+    public void onCustomAIUpdated(CustomAIUpdatedEvent event) {
+        if (!hotSwap) {
+            return;
+        }
+        for (Match match : matches.values()) {
+            match.getEngine().hotSwap(event.ai());
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    private int leastLoadedShard() {
+        int best = 0;
+        for (int i = 1; i < shardLoad.length; i++) {
+            if (shardLoad[i].get() < shardLoad[best].get()) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matches.keySet().forEach(this::removeMatch);
+        for (ScheduledExecutorService shard : shards) {
+            shard.shutdownNow();
+        }
+        decisionPool.shutdownNow();
+    }
+}
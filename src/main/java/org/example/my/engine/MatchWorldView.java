@@ -0,0 +1,167 @@
+package org.example.my.engine;
+
+import org.example.my.ai.WorldView;
+import org.example.my.model.Bullet;
+import org.example.my.model.BulletListView;
+import org.example.my.model.BulletView;
+import org.example.my.model.Car;
+import org.example.my.model.GameMode;
+import org.example.my.model.TankState;
+import org.example.my.model.WorldSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * WorldView конкретного танка. Создается движком один раз на танк
+ * и каждый тик переключается на новый снимок мира без новых списков.
+ * Копии Car принадлежат только этому виду и заполняются лениво, при первом обращении за тик,
+ * поэтому виды разных танков можно читать из разных потоков одновременно.
+ */
+public class MatchWorldView implements WorldView {
+
+    private final int selfIndex;
+    private final SplittableRandom random;
+    private final Car[] copies;
+    private final long[] copiedAt;
+    private final BulletListView bulletList;
+
+    private final List<Car> enemies;
+    private final List<Car> allies;
+    private final List<Car> enemiesView;
+    private final List<Car> alliesView;
+    private boolean listsStale = true;
+
+    private WorldSnapshot snapshot;
+    // Номер обновления вида; копия танка актуальна, если copiedAt совпадает с ним
+    private long version = 0;
+
+    /**
+     * random - генератор своего танка: AI со случайным поведением берут его из self().getRandom()
+     */
+    public MatchWorldView(int selfIndex, int tankCount, SplittableRandom random) {
+        this.selfIndex = selfIndex;
+        this.random = random;
+        this.copies = new Car[tankCount];
+        this.copiedAt = new long[tankCount];
+        this.bulletList = new BulletListView(null, this::tank);
+        this.enemies = new ArrayList<>(tankCount);
+        this.allies = new ArrayList<>(tankCount);
+        this.enemiesView = Collections.unmodifiableList(enemies);
+        this.alliesView = Collections.unmodifiableList(allies);
+    }
+
+    /**
+     * Переключает вид на снимок нового тика
+     */
+    public void refresh(WorldSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.version++;
+        this.listsStale = true;
+        bulletList.reset(snapshot.bullets());
+    }
+
+    @Override
+    public WorldSnapshot snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public Car self() {
+        return tank(selfIndex);
+    }
+
+    @Override
+    public int selfIndex() {
+        return selfIndex;
+    }
+
+    @Override
+    public int team() {
+        return snapshot.tank(selfIndex).team();
+    }
+
+    @Override
+    public List<Car> enemies() {
+        rebuildLists();
+        return enemiesView;
+    }
+
+    @Override
+    public List<Car> allies() {
+        rebuildLists();
+        return alliesView;
+    }
+
+    @Override
+    public int tankCount() {
+        return snapshot.tankCount();
+    }
+
+    @Override
+    public Car tank(int index) {
+        Car copy = copies[index];
+        if (copy == null) {
+            copy = Car.builder().build();
+            if (index == selfIndex) {
+                copy.setRandom(random);
+            }
+            copies[index] = copy;
+        }
+        if (copiedAt[index] != version) {
+            snapshot.tank(index).copyTo(copy);
+            copiedAt[index] = version;
+        }
+        return copy;
+    }
+
+    @Override
+    public int teamOf(int index) {
+        return snapshot.tank(index).team();
+    }
+
+    @Override
+    public BulletView bullets() {
+        return snapshot.bullets();
+    }
+
+    @Override
+    public Collection<Bullet> bulletList() {
+        return bulletList;
+    }
+
+    @Override
+    public long tick() {
+        return snapshot.tick();
+    }
+
+    @Override
+    public GameMode mode() {
+        return snapshot.mode();
+    }
+
+    // Пересобирает списки живых противников и союзников на текущий тик
+    private void rebuildLists() {
+        if (!listsStale) {
+            return;
+        }
+        enemies.clear();
+        allies.clear();
+
+        int myTeam = team();
+        for (TankState tank : snapshot.tanks()) {
+            if (tank.index() == selfIndex || !tank.alive()) {
+                continue;
+            }
+            if (tank.team() == myTeam) {
+                allies.add(tank(tank.index()));
+            } else {
+                enemies.add(tank(tank.index()));
+            }
+        }
+        listsStale = false;
+    }
+}
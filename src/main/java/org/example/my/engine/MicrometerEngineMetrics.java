@@ -0,0 +1,84 @@
+package org.example.my.engine;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EngineMetrics поверх Micrometer. Метры создаются один раз и переиспользуются:
+ * на тике остаются только вызовы record().
+ */
+@Component
+public class MicrometerEngineMetrics implements EngineMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer tickTimer;
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Timer stateBuildTimer;
+    private final DistributionSummary allocatedPerTick;
+    private final Map<String, Timer> decisionTimers = new ConcurrentHashMap<>();
+
+    public MicrometerEngineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.tickTimer = Timer.builder("game.tick")
+                .description("Duration of one simulation tick")
+                .tag("phase", "total")
+                .publishPercentileHistogram()
+                .register(registry);
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("game.tick")
+                    .description("Duration of one simulation tick")
+                    .tag("phase", phase.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        this.stateBuildTimer = Timer.builder("game.state.build")
+                .description("Time to capture and encode the frame sent to spectators after a tick")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.allocatedPerTick = DistributionSummary.builder("game.tick.allocated")
+                .description("Bytes allocated by the match thread during one tick")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordPhase(Phase phase, long nanos) {
+        phaseTimers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordTick(long nanos, long allocatedBytes) {
+        tickTimer.record(nanos, TimeUnit.NANOSECONDS);
+        if (allocatedBytes >= 0) {
+            allocatedPerTick.record(allocatedBytes);
+        }
+    }
+
+    @Override
+    public void recordDecision(String aiName, long nanos) {
+        decisionTimers.computeIfAbsent(aiName, name -> Timer.builder("game.ai.decision")
+                        .description("Latency of CarAI.decideAction")
+                        .tag("ai", name)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordStateBuild(long nanos) {
+        stateBuildTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
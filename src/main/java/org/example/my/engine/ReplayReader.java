@@ -0,0 +1,533 @@
+package org.example.my.engine;
+
+import org.example.my.ai.TankProfile;
+import org.example.my.model.CarAction;
+import org.example.my.model.GameMode;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Чтение записи боя (формат описан в ReplayRecorder): заголовок разбирается при открытии,
+ * действия читаются по одному тику. Файл отображается в память только для чтения.
+ * Обрыв записи (сервер остановился посреди боя) - просто конец данных.
+ * seek() переходит к ближайшему ключевому кадру по индексу в конце файла;
+ * у оборванной записи индекса нет, и он строится одним проходом по записям.
+ */
+public class ReplayReader {
+
+    /**
+     * Полное состояние боя из ключевого кадра: после тика tick
+     */
+    public record Keyframe(long tick, List<TankFrame> tanks, int nextBulletId, List<BulletFrame> bullets) {
+    }
+
+    public record TankFrame(double x, double y, double angle, double speed, int health, int reloadTicks,
+                            boolean alive, boolean suspended, int overruns, String ai, TankProfile profile) {
+    }
+
+    public record BulletFrame(int id, int owner, double x, double y, double dx, double dy,
+                              double angle, double damage, int ticksLeft) {
+    }
+
+    /**
+     * События записи между тиками: смена AI и отстранение танка
+     */
+    public interface Listener {
+        Listener NONE = new Listener() {
+            @Override
+            public void onProfile(int slot, String ai, TankProfile profile) {
+            }
+
+            @Override
+            public void onForfeit(int slot) {
+            }
+        };
+
+        void onProfile(int slot, String ai, TankProfile profile);
+
+        void onForfeit(int slot);
+    }
+
+    private static final GameMode[] MODES = GameMode.values();
+
+    private final ByteBuffer data;
+    private final String matchId;
+    private final int round;
+    private final long seed;
+    private final long startedAt;
+    private final int tickRate;
+    private final GameMode mode;
+    private final int teamCount;
+    private final List<String> ais;
+    private final List<TankProfile> profiles;
+    private final int recordsStart;
+
+    // Текущие действия танков и словарь сил, как у записывающего
+    private final CarAction[] current;
+    private final double[] powers;
+    private final double[] dictionary = new double[ReplayRecorder.MAX_POWERS];
+    private int dictionarySize = 0;
+
+    private long runRemaining = 0;
+    private long ticks = 0;
+    private boolean ended = false;
+    private boolean complete = false;
+    private int winner = 0;
+
+    // Тики и смещения ключевых кадров, по возрастанию тиков
+    private long[] keyframeTicks;
+    private int[] keyframeOffsets;
+
+    public ReplayReader(ByteBuffer data) {
+        this.data = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (this.data.getInt() != ReplayRecorder.MAGIC) {
+                throw new IllegalArgumentException("Not a replay file");
+            }
+            int version = this.data.get() & 0xFF;
+            if (version != ReplayRecorder.VERSION) {
+                throw new IllegalArgumentException("Unsupported replay version: " + version);
+            }
+            matchId = getString();
+            round = this.data.getInt();
+            seed = this.data.getLong();
+            startedAt = this.data.getLong();
+            tickRate = this.data.getShort() & 0xFFFF;
+            int modeIndex = this.data.get() & 0xFF;
+            if (modeIndex >= MODES.length) {
+                throw new IllegalArgumentException("Unknown game mode: " + modeIndex);
+            }
+            mode = MODES[modeIndex];
+            teamCount = this.data.get() & 0xFF;
+
+            int n = this.data.get() & 0xFF;
+            List<String> names = new ArrayList<>(n);
+            List<TankProfile> tankProfiles = new ArrayList<>(n);
+            for (int t = 0; t < n; t++) {
+                names.add(getString());
+                tankProfiles.add(getProfile());
+            }
+            ais = Collections.unmodifiableList(names);
+            profiles = Collections.unmodifiableList(tankProfiles);
+            recordsStart = this.data.position();
+
+            current = new CarAction[n];
+            powers = new double[n];
+            rewind();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Replay header is truncated");
+        }
+    }
+
+    /**
+     * Отображает файл записи в память. Неправильный файл - IllegalArgumentException.
+     */
+    public static ReplayReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ReplayReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Действия следующего тика в actions; события перед тиком передаются listener.
+     * false - запись закончилась.
+     */
+    public boolean nextTick(CarAction[] actions, Listener listener) {
+        if (runRemaining == 0 && !readTick(listener)) {
+            return false;
+        }
+        if (runRemaining > 0) {
+            runRemaining--;
+        }
+        System.arraycopy(current, 0, actions, 0, current.length);
+        ticks++;
+        return true;
+    }
+
+    /**
+     * Переходит к последнему ключевому кадру не позже tick и возвращает его;
+     * следующий nextTick() вернет тик после кадра. null - кадра нет, запись читается с начала.
+     */
+    public Keyframe seek(long tick) {
+        buildIndex();
+        int found = -1;
+        for (int i = 0; i < keyframeTicks.length && keyframeTicks[i] <= tick; i++) {
+            found = i;
+        }
+
+        rewind();
+        if (found < 0) {
+            return null;
+        }
+        data.position(keyframeOffsets[found] + 1 + 4);
+        Keyframe keyframe = readKeyframe();
+        ticks = keyframe.tick();
+        return keyframe;
+    }
+
+    /**
+     * Тики ключевых кадров записи
+     */
+    public long[] getKeyframeTicks() {
+        buildIndex();
+        return keyframeTicks.clone();
+    }
+
+    /**
+     * Дочитывает запись до конца без событий; после этого известны число тиков и победитель
+     */
+    public ReplayReader skipToEnd() {
+        CarAction[] actions = new CarAction[current.length];
+        while (nextTick(actions, Listener.NONE)) {
+            // Только считаем тики
+        }
+        return this;
+    }
+
+    // Читает записи до очередного тика: RUN задает серию одинаковых тиков, TICK - один тик
+    private boolean readTick(Listener listener) {
+        if (ended) {
+            return false;
+        }
+        try {
+            while (data.hasRemaining()) {
+                byte code = data.get();
+                switch (code) {
+                    case ReplayRecorder.RUN -> {
+                        runRemaining = getVarint();
+                        if (runRemaining > 0) {
+                            return true;
+                        }
+                    }
+                    case ReplayRecorder.TICK -> {
+                        readChanges();
+                        return true;
+                    }
+                    case ReplayRecorder.PROFILE -> {
+                        int slot = getSlot();
+                        listener.onProfile(slot, getString(), getProfile());
+                    }
+                    case ReplayRecorder.FORFEIT -> listener.onForfeit(getSlot());
+                    case ReplayRecorder.KEYFRAME -> {
+                        // Последовательное чтение уже находится в том же состоянии
+                        int length = data.getInt();
+                        data.position(data.position() + length);
+                    }
+                    case ReplayRecorder.END -> {
+                        getVarint();
+                        winner = data.get() & 0xFF;
+                        complete = true;
+                        ended = true;
+                        return false;
+                    }
+                    default -> {
+                        // END_OF_DATA или мусор после обрыва записи
+                        ended = true;
+                        return false;
+                    }
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // Запись оборвалась посреди тика
+        }
+        ended = true;
+        return false;
+    }
+
+    // Начало записей: действия по умолчанию, пустой словарь сил
+    private void rewind() {
+        data.position(recordsStart);
+        CarAction idle = new CarAction(CarAction.ActionType.IDLE);
+        for (int t = 0; t < current.length; t++) {
+            current[t] = idle;
+            powers[t] = 1.0;
+        }
+        dictionarySize = 0;
+        runRemaining = 0;
+        ticks = 0;
+        ended = false;
+    }
+
+    /**
+     * Ключевой кадр (данные после длины); восстанавливает и состояние чтения: словарь и действия танков
+     */
+    private Keyframe readKeyframe() {
+        long tick = getVarint();
+        dictionarySize = data.get() & 0xFF;
+        if (dictionarySize > dictionary.length) {
+            throw new IllegalArgumentException("Power dictionary is too large: " + dictionarySize);
+        }
+        for (int i = 0; i < dictionarySize; i++) {
+            dictionary[i] = data.getDouble();
+        }
+
+        List<TankFrame> tanks = new ArrayList<>(current.length);
+        for (int t = 0; t < current.length; t++) {
+            int flags = data.get() & 0xFF;
+            double x = data.getDouble();
+            double y = data.getDouble();
+            double angle = data.getDouble();
+            double speed = data.getDouble();
+            int health = (int) getVarint();
+            int reloadTicks = (int) getVarint();
+            int overruns = (int) getVarint();
+
+            int code = data.get() & 0xFF;
+            int powerCode = code >>> ReplayRecorder.POWER_SHIFT;
+            double power = 1.0;
+            if (powerCode == ReplayRecorder.LITERAL_POWER) {
+                power = data.getDouble();
+            } else if (powerCode != ReplayRecorder.SAME_POWER) {
+                if (powerCode > dictionarySize) {
+                    throw new IllegalArgumentException("Unknown power index: " + powerCode);
+                }
+                power = dictionary[powerCode - 1];
+            }
+            powers[t] = power;
+            current[t] = new CarAction(ReplayRecorder.actionType(code), power);
+
+            String ai = ais.get(t);
+            TankProfile profile = profiles.get(t);
+            if ((flags & ReplayRecorder.OTHER_AI) != 0) {
+                ai = getString();
+                profile = getProfile();
+            }
+            tanks.add(new TankFrame(x, y, angle, speed, health, reloadTicks,
+                    (flags & ReplayRecorder.ALIVE) != 0, (flags & ReplayRecorder.SUSPENDED) != 0, overruns, ai, profile));
+        }
+
+        int nextBulletId = (int) getVarint();
+        int count = (int) getVarint();
+        List<BulletFrame> bullets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = (int) getVarint();
+            int owner = data.get() & 0xFF;
+            bullets.add(new BulletFrame(id, owner, data.getDouble(), data.getDouble(), data.getDouble(),
+                    data.getDouble(), data.getDouble(), data.getDouble(), (int) getVarint()));
+        }
+        return new Keyframe(tick, List.copyOf(tanks), nextBulletId, List.copyOf(bullets));
+    }
+
+    // Индекс из конца файла, а у оборванной записи - проходом по записям (без разбора действий)
+    private void buildIndex() {
+        if (keyframeTicks != null) {
+            return;
+        }
+        if (!readIndex()) {
+            scanIndex();
+        }
+    }
+
+    private boolean readIndex() {
+        int limit = data.limit();
+        if (limit - recordsStart < ReplayRecorder.TRAILER_BYTES
+                || data.getInt(limit - 4) != ReplayRecorder.INDEX_MAGIC) {
+            return false;
+        }
+        int offset = data.getInt(limit - ReplayRecorder.TRAILER_BYTES);
+        if (offset < recordsStart || offset >= limit || data.get(offset) != ReplayRecorder.INDEX) {
+            return false;
+        }
+
+        int saved = data.position();
+        try {
+            data.position(offset + 1);
+            int count = (int) getVarint();
+            long[] indexTicks = new long[count];
+            int[] indexOffsets = new int[count];
+            for (int i = 0; i < count; i++) {
+                indexTicks[i] = getVarint();
+                indexOffsets[i] = (int) getVarint();
+            }
+            keyframeTicks = indexTicks;
+            keyframeOffsets = indexOffsets;
+            return true;
+        } catch (BufferUnderflowException e) {
+            return false;
+        } finally {
+            data.position(saved);
+        }
+    }
+
+    private void scanIndex() {
+        ByteBuffer scan = data.duplicate().order(ByteOrder.LITTLE_ENDIAN).position(recordsStart);
+        List<long[]> found = new ArrayList<>();
+        try {
+            scanning:
+            while (scan.hasRemaining()) {
+                int offset = scan.position();
+                switch (scan.get()) {
+                    case ReplayRecorder.RUN -> getVarint(scan);
+                    case ReplayRecorder.TICK -> {
+                        long changed = getVarint(scan);
+                        for (long i = 0; i < changed; i++) {
+                            scan.get();
+                            int code = scan.get() & 0xFF;
+                            if (code >>> ReplayRecorder.POWER_SHIFT == ReplayRecorder.LITERAL_POWER) {
+                                scan.getDouble();
+                            }
+                        }
+                    }
+                    case ReplayRecorder.PROFILE -> {
+                        scan.get();
+                        scan.position(scan.position() + (scan.getShort() & 0xFFFF));
+                        scan.position(scan.position() + 3 + 8 + 8);
+                        getVarint(scan);
+                        getVarint(scan);
+                    }
+                    case ReplayRecorder.FORFEIT -> scan.get();
+                    case ReplayRecorder.KEYFRAME -> {
+                        int length = scan.getInt();
+                        int end = scan.position() + length;
+                        found.add(new long[]{getVarint(scan), offset});
+                        scan.position(end);
+                    }
+                    default -> {
+                        break scanning;
+                    }
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // Запись оборвалась: кадры до обрыва уже найдены
+        }
+
+        keyframeTicks = new long[found.size()];
+        keyframeOffsets = new int[found.size()];
+        for (int i = 0; i < found.size(); i++) {
+            keyframeTicks[i] = found.get(i)[0];
+            keyframeOffsets[i] = (int) found.get(i)[1];
+        }
+    }
+
+    private void readChanges() {
+        long changed = getVarint();
+        for (long i = 0; i < changed; i++) {
+            int slot = getSlot();
+            int code = data.get() & 0xFF;
+            int powerCode = code >>> ReplayRecorder.POWER_SHIFT;
+            double power = powers[slot];
+            if (powerCode == ReplayRecorder.LITERAL_POWER) {
+                power = data.getDouble();
+                if (dictionarySize < dictionary.length) {
+                    dictionary[dictionarySize++] = power;
+                }
+            } else if (powerCode != ReplayRecorder.SAME_POWER) {
+                if (powerCode > dictionarySize) {
+                    throw new IllegalArgumentException("Unknown power index: " + powerCode);
+                }
+                power = dictionary[powerCode - 1];
+            }
+            powers[slot] = power;
+            current[slot] = new CarAction(ReplayRecorder.actionType(code), power);
+        }
+    }
+
+    private int getSlot() {
+        int slot = data.get() & 0xFF;
+        if (slot >= current.length) {
+            throw new IllegalArgumentException("No such tank: " + slot);
+        }
+        return slot;
+    }
+
+    private TankProfile getProfile() {
+        int range = data.get() & 0xFF;
+        int speed = data.get() & 0xFF;
+        int fireRate = data.get() & 0xFF;
+        double maxSpeed = data.getDouble();
+        double acceleration = data.getDouble();
+        int bulletLifetime = (int) getVarint();
+        int cooldown = (int) getVarint();
+        return new TankProfile(range, speed, fireRate, maxSpeed, acceleration, bulletLifetime, cooldown);
+    }
+
+    private String getString() {
+        byte[] bytes = new byte[data.getShort() & 0xFFFF];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long getVarint() {
+        return getVarint(data);
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public String getMatchId() {
+        return matchId;
+    }
+
+    public int getRound() {
+        return round;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+
+    public GameMode getMode() {
+        return mode;
+    }
+
+    public int getTeamCount() {
+        return teamCount;
+    }
+
+    public int getTankCount() {
+        return current.length;
+    }
+
+    public List<String> getAis() {
+        return ais;
+    }
+
+    public List<TankProfile> getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * Прочитано тиков
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Запись дочитана до END (раунд закончился, а не оборвался)
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+}
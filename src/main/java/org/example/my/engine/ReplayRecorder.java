@@ -0,0 +1,523 @@
+package org.example.my.engine;
+
+import org.example.my.ai.TankProfile;
+import org.example.my.model.BulletPool;
+import org.example.my.model.Car;
+import org.example.my.model.CarAction;
+import org.example.my.model.GameMode;
+import org.example.my.model.Position;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Запись одного раунда боя для повтора. Физика боя детерминирована, а случайные числа
+ * нужны только AI, поэтому для повтора достаточно зерна, характеристик танков и действий:
+ * AI при повторе не вызываются. Действия пишутся только при изменении, тики без изменений
+ * сворачиваются в одну запись - минута боя занимает единицы килобайт.
+ * <p>
+ * Файл только дописывается и отображается в память кусками по chunkBytes, поэтому запись
+ * на потоке тика - это сравнение с прошлыми действиями и несколько байт в память,
+ * без системных вызовов (кроме отображения следующего куска).
+ * <p>
+ * Для перемотки каждые keyframeInterval тиков пишется ключевой кадр - полное состояние боя
+ * после тика (танки, перезарядка, летящие пули, текущие действия). В конце записи - индекс
+ * "тик ключевого кадра - смещение в файле": перемотка читает ближайший кадр и досчитывает
+ * не больше keyframeInterval тиков.
+ * <p>
+ * Формат (little-endian):
+ * <pre>
+ * заголовок: magic "TNKR", u8 version, str matchId, u32 round, i64 seed, i64 startedAt (мс), u16 tickRate,
+ *            u8 mode, u8 teams, u8 tanks, [str ai, профиль]
+ *   профиль: u8 range, u8 speed, u8 fireRate, f64 maxSpeed, f64 acceleration,
+ *            varint bulletLifetimeTicks, varint shootCooldownTicks
+ * записи:    u8 код, данные
+ *   1 RUN     varint n - n тиков с теми же действиями, что и в предыдущем
+ *   2 TICK    varint n, [u8 slot, u8 action] - один тик, n танков сменили действие
+ *   3 PROFILE u8 slot, str ai, профиль - танку назначен другой AI
+ *   4 FORFEIT u8 slot - танк отстранен сторожем и выбывает
+ *   5 END     varint ticks, u8 winner - раунд закончен
+ *   6 KEYFRAME u32 length, varint tick, u8 powers, [f64 power], [танк], varint nextBulletId, varint bullets, [пуля]
+ *     танк:   u8 flags (1 - жив, 2 - отстранен, 4 - AI не тот, что в заголовке), f64 x, f64 y, f64 angle, f64 speed,
+ *             varint health, varint reloadTicks, varint overruns, u8 action, [f64 power], [str ai, профиль, если flags & 4]
+ *     пуля:   varint id, u8 owner, f64 x, f64 y, f64 dx, f64 dy, f64 angle, f64 damage, varint ticksLeft
+ *   7 INDEX   varint n, [varint tick, varint offset] - ключевые кадры; за ним u32 offset записи INDEX, magic "TNKI"
+ *   0         конец данных: запись оборвалась, остаток файла заполнен нулями (индекса нет)
+ * action:    биты 0-2 - ActionType, биты 3-7 - сила: 0 - как в прошлом действии танка (в ключевом кадре - 1.0),
+ *            1..30 - номер в словаре сил записи, 31 - далее f64, значение попадает в словарь (в кадре - нет)
+ * str:       u16 длина, UTF-8; varint - беззнаковый LEB128
+ * </pre>
+ * PROFILE и FORFEIT действуют с тика, записанного следом. Пустое действие (танк уничтожен
+ * или ждет решения) пишется как IDLE. Используется только потоком, который ведет бой.
+ */
+public class ReplayRecorder {
+
+    static final int MAGIC = 'T' | 'N' << 8 | 'K' << 16 | 'R' << 24;
+    static final int VERSION = 1;
+
+    static final byte END_OF_DATA = 0;
+    static final byte RUN = 1;
+    static final byte TICK = 2;
+    static final byte PROFILE = 3;
+    static final byte FORFEIT = 4;
+    static final byte END = 5;
+    static final byte KEYFRAME = 6;
+    static final byte INDEX = 7;
+
+    static final int INDEX_MAGIC = 'T' | 'N' << 8 | 'K' << 16 | 'I' << 24;
+    static final int TRAILER_BYTES = 8;
+
+    static final int ALIVE = 1;
+    static final int SUSPENDED = 2;
+    static final int OTHER_AI = 4;
+
+    static final int TYPE_MASK = 0x07;
+    static final int POWER_SHIFT = 3;
+    static final int SAME_POWER = 0;
+    static final int LITERAL_POWER = 31;
+    static final int MAX_POWERS = 30;
+
+    private static final CarAction.ActionType[] TYPES = CarAction.ActionType.values();
+    private static final int IDLE = CarAction.ActionType.IDLE.ordinal();
+    // Профиль танка: три очка, две скорости и два varint
+    private static final int PROFILE_BYTES = 3 + 8 + 8 + 5 + 5;
+
+    private final String id;
+    private final Path path;
+    private final FileChannel channel;
+    private final int chunkBytes;
+    private final int keyframeInterval;
+    private MappedByteBuffer buffer;
+    private long chunkStart = 0;
+
+    // Последние записанные действия танков и словарь встреченных сил
+    private final int[] types;
+    private final double[] powers;
+    private final double[] dictionary = new double[MAX_POWERS];
+    private int dictionarySize = 0;
+    private final byte[] changes;
+
+    // AI из заголовка: в ключевом кадре AI пишется, только если танку назначили другой
+    private final String[] headerAis;
+    private final TankProfile[] headerProfiles;
+    // Ключевой кадр собирается в куче и копируется в файл одним куском
+    private ByteBuffer keyframe = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+    private long[] keyframeTicks = new long[16];
+    private long[] keyframeOffsets = new long[16];
+    private int keyframes = 0;
+
+    private long pendingRun = 0;
+    private long ticks = 0;
+    private long size = 0;
+    private boolean closed = false;
+
+    ReplayRecorder(String id, Path path, int chunkBytes, int keyframeInterval, String matchId, int round, long seed,
+                   GameMode mode, int teamCount, String[] ais, TankProfile[] profiles) throws IOException {
+        this.id = id;
+        this.path = path;
+        this.chunkBytes = Math.max(4096, chunkBytes);
+        this.keyframeInterval = keyframeInterval;
+        this.headerAis = ais.clone();
+        this.headerProfiles = profiles.clone();
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        int n = ais.length;
+        this.types = new int[n];
+        this.powers = new double[n];
+        this.changes = new byte[2 * n];
+        for (int t = 0; t < n; t++) {
+            types[t] = IDLE;
+            powers[t] = 1.0;
+        }
+
+        try {
+            map(0);
+            buffer.putInt(MAGIC);
+            buffer.put((byte) VERSION);
+            putString(matchId);
+            ensure(4 + 8 + 8 + 2 + 3);
+            buffer.putInt(round);
+            buffer.putLong(seed);
+            buffer.putLong(System.currentTimeMillis());
+            buffer.putShort((short) SimulationClock.TICKS_PER_SECOND);
+            buffer.put((byte) mode.ordinal());
+            buffer.put((byte) teamCount);
+            buffer.put((byte) n);
+            for (int t = 0; t < n; t++) {
+                putString(ais[t]);
+                putProfile(profiles[t]);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Действия очередного тика (null - танк простаивает)
+     */
+    public void recordTick(CarAction[] actions) {
+        if (closed) {
+            return;
+        }
+
+        int changed = 0;
+        int literals = 0;
+        for (int t = 0; t < types.length; t++) {
+            CarAction action = actions[t];
+            int type = action != null ? action.getType().ordinal() : IDLE;
+            // Сила важна только для движения и поворотов; у остальных действий остается прежней
+            double power = action != null && action.requiresPower() ? action.getPower() : powers[t];
+            if (type == types[t] && Double.compare(power, powers[t]) == 0) {
+                continue;
+            }
+
+            int powerCode = SAME_POWER;
+            if (Double.compare(power, powers[t]) != 0) {
+                powerCode = powerIndex(power);
+                if (powerCode == LITERAL_POWER) {
+                    literals++;
+                }
+            }
+            types[t] = type;
+            powers[t] = power;
+            changes[2 * changed] = (byte) t;
+            changes[2 * changed + 1] = (byte) (type | powerCode << POWER_SHIFT);
+            changed++;
+        }
+
+        ticks++;
+        if (changed == 0) {
+            pendingRun++;
+            return;
+        }
+
+        try {
+            flushRun();
+            ensure(1 + 5 + 2 * changed + 8 * literals);
+            buffer.put(TICK);
+            putVarint(changed);
+            for (int i = 0; i < changed; i++) {
+                int slot = changes[2 * i];
+                int action = changes[2 * i + 1] & 0xFF;
+                buffer.put((byte) slot);
+                buffer.put((byte) action);
+                if (action >>> POWER_SHIFT == LITERAL_POWER) {
+                    buffer.putDouble(powers[slot]);
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Танку назначен другой AI; действует со следующего тика
+     */
+    public void recordProfile(int slot, String ai, TankProfile profile) {
+        if (closed) {
+            return;
+        }
+        try {
+            flushRun();
+            ensure(2);
+            buffer.put(PROFILE);
+            buffer.put((byte) slot);
+            putString(ai);
+            putProfile(profile);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Танк отстранен сторожем; записывается до действий тика, на котором он выбыл
+     */
+    public void recordForfeit(int slot) {
+        if (closed) {
+            return;
+        }
+        try {
+            flushRun();
+            ensure(2);
+            buffer.put(FORFEIT);
+            buffer.put((byte) slot);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Пора ли писать ключевой кадр (вызывается после тика)
+     */
+    public boolean isKeyframeDue() {
+        return !closed && keyframeInterval > 0 && ticks > 0 && ticks % keyframeInterval == 0;
+    }
+
+    /**
+     * Полное состояние боя после тика tick. Массивы - состояние движка, индекс - номер танка.
+     */
+    public void recordKeyframe(long tick, Car[] tanks, String[] ais, TankProfile[] profiles,
+                               boolean[] suspended, int[] overruns, BulletPool bullets) {
+        if (closed) {
+            return;
+        }
+
+        int bound = 1 + 10 + 1 + 8 * MAX_POWERS + 10 + 5 + bullets.size() * (5 + 1 + 6 * 8 + 5);
+        for (String ai : ais) {
+            bound += 1 + 4 * 8 + 3 * 5 + 1 + 8 + 2 + 3 * (ai != null ? ai.length() : 0) + PROFILE_BYTES;
+        }
+        if (keyframe.capacity() < bound) {
+            keyframe = ByteBuffer.allocate(Integer.highestOneBit(bound) << 1).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer out = keyframe.clear();
+
+        putVarint(out, tick);
+        out.put((byte) dictionarySize);
+        for (int i = 0; i < dictionarySize; i++) {
+            out.putDouble(dictionary[i]);
+        }
+
+        for (int t = 0; t < tanks.length; t++) {
+            Car car = tanks[t];
+            Position pos = car.getPosition();
+            boolean otherAi = !Objects.equals(ais[t], headerAis[t]) || !Objects.equals(profiles[t], headerProfiles[t]);
+            out.put((byte) ((car.isAlive() ? ALIVE : 0) | (suspended[t] ? SUSPENDED : 0) | (otherAi ? OTHER_AI : 0)));
+            out.putDouble(pos.getX());
+            out.putDouble(pos.getY());
+            out.putDouble(pos.getAngle());
+            out.putDouble(car.getSpeed());
+            putVarint(out, car.getHealth());
+            putVarint(out, car.getReloadTicks());
+            putVarint(out, overruns[t]);
+
+            // Текущее действие танка: после перемотки с него продолжаются изменения записи
+            int powerCode = LITERAL_POWER;
+            if (Double.compare(powers[t], 1.0) == 0) {
+                powerCode = SAME_POWER;
+            } else {
+                for (int i = 0; i < dictionarySize; i++) {
+                    if (Double.compare(dictionary[i], powers[t]) == 0) {
+                        powerCode = i + 1;
+                        break;
+                    }
+                }
+            }
+            out.put((byte) (types[t] | powerCode << POWER_SHIFT));
+            if (powerCode == LITERAL_POWER) {
+                out.putDouble(powers[t]);
+            }
+
+            if (otherAi) {
+                putString(out, ais[t]);
+                putProfile(out, profiles[t]);
+            }
+        }
+
+        putVarint(out, bullets.nextId());
+        putVarint(out, bullets.size());
+        for (int i = 0; i < bullets.size(); i++) {
+            putVarint(out, bullets.id(i));
+            out.put((byte) bullets.owner(i));
+            out.putDouble(bullets.x(i));
+            out.putDouble(bullets.y(i));
+            out.putDouble(bullets.dx(i));
+            out.putDouble(bullets.dy(i));
+            out.putDouble(bullets.angle(i));
+            out.putDouble(bullets.damage(i));
+            putVarint(out, bullets.ticksLeft(i));
+        }
+        out.flip();
+
+        try {
+            flushRun();
+            ensure(1 + 4 + out.remaining());
+            long offset = chunkStart + buffer.position();
+            buffer.put(KEYFRAME);
+            buffer.putInt(out.remaining());
+            buffer.put(out);
+
+            if (keyframes == keyframeTicks.length) {
+                keyframeTicks = Arrays.copyOf(keyframeTicks, keyframes * 2);
+                keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframes * 2);
+            }
+            keyframeTicks[keyframes] = tick;
+            keyframeOffsets[keyframes] = offset;
+            keyframes++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Завершает запись: итог раунда, индекс ключевых кадров и обрезка файла по записанным данным
+     */
+    public void finish(int winner) {
+        if (closed) {
+            return;
+        }
+        try {
+            flushRun();
+            ensure(1 + 10 + 1);
+            buffer.put(END);
+            putVarint(ticks);
+            buffer.put((byte) winner);
+
+            ensure(1 + 5 + keyframes * 20 + TRAILER_BYTES);
+            long indexOffset = chunkStart + buffer.position();
+            buffer.put(INDEX);
+            putVarint(keyframes);
+            for (int i = 0; i < keyframes; i++) {
+                putVarint(keyframeTicks[i]);
+                putVarint(keyframeOffsets[i]);
+            }
+            buffer.putInt((int) indexOffset);
+            buffer.putInt(INDEX_MAGIC);
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        close();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Записано байт (вместе с заголовком)
+     */
+    public long getSize() {
+        return closed ? size : chunkStart + buffer.position();
+    }
+
+    private void close() {
+        size = chunkStart + buffer.position();
+        closed = true;
+        try {
+            // Отображение остается до сборки мусора; на Linux файл под ним можно обрезать
+            channel.truncate(size);
+        } catch (IOException e) {
+            // Хвост из нулей читатель принимает за конец данных
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Файл уже записан
+            }
+        }
+    }
+
+    private void fail(IOException e) {
+        System.err.println("❌ Replay " + id + " stopped recording: " + e.getMessage());
+        close();
+    }
+
+    private void flushRun() throws IOException {
+        if (pendingRun == 0) {
+            return;
+        }
+        ensure(1 + 10);
+        buffer.put(RUN);
+        putVarint(pendingRun);
+        pendingRun = 0;
+    }
+
+    // Номер силы в словаре; новая сила добавляется и пишется целиком
+    private int powerIndex(double power) {
+        for (int i = 0; i < dictionarySize; i++) {
+            if (Double.compare(dictionary[i], power) == 0) {
+                return i + 1;
+            }
+        }
+        if (dictionarySize < MAX_POWERS) {
+            dictionary[dictionarySize++] = power;
+        }
+        return LITERAL_POWER;
+    }
+
+    private void putProfile(TankProfile profile) throws IOException {
+        ensure(PROFILE_BYTES);
+        putProfile(buffer, profile);
+    }
+
+    private void putString(String value) throws IOException {
+        ensure(2 + 3 * (value != null ? value.length() : 0));
+        putString(buffer, value);
+    }
+
+    private void putVarint(long value) {
+        putVarint(buffer, value);
+    }
+
+    private static void putProfile(ByteBuffer out, TankProfile profile) {
+        out.put((byte) profile.shootingRange());
+        out.put((byte) profile.movementSpeed());
+        out.put((byte) profile.fireRate());
+        out.putDouble(profile.maxSpeed());
+        out.putDouble(profile.acceleration());
+        putVarint(out, profile.bulletLifetimeTicks());
+        putVarint(out, profile.shootCooldownTicks());
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, 0xFFFF);
+        out.putShort((short) length);
+        out.put(bytes, 0, length);
+    }
+
+    private static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    // Если в текущем куске не хватает места, отображается следующий (файл при этом растет)
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            map(chunkStart + buffer.position(), bytes);
+        }
+    }
+
+    private void map(long position) throws IOException {
+        map(position, chunkBytes);
+    }
+
+    private void map(long position, int minBytes) throws IOException {
+        chunkStart = position;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(chunkBytes, minBytes));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static CarAction.ActionType actionType(int code) {
+        int type = code & TYPE_MASK;
+        if (type >= TYPES.length) {
+            throw new IllegalArgumentException("Unknown action type: " + type);
+        }
+        return TYPES[type];
+    }
+}
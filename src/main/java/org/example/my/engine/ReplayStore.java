@@ -0,0 +1,184 @@
+package org.example.my.engine;
+
+import org.example.my.ai.TankProfile;
+import org.example.my.model.GameMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Каталог записей боев: по файлу на раунд матча (id записи - "номер матча-r номер раунда").
+ * Записывают матчи из MatchRegistry; турниры и повторы не записываются.
+ * Каталог ограничен по числу файлов и по объему: перед новой записью удаляются самые старые.
+ */
+@Component
+public class ReplayStore {
+
+    private static final String EXTENSION = ".replay";
+    private static final Pattern ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int chunkBytes;
+    private final int keyframeInterval;
+    private final int maxFiles;
+    private final long maxBytes;
+    // Идущие записи: их файлы не удаляются
+    private final Map<Path, ReplayRecorder> recording = new ConcurrentHashMap<>();
+
+    public ReplayStore(@Value("${game.replay.enabled:true}") boolean enabled,
+                       @Value("${game.replay.dir:replays}") String directory,
+                       @Value("${game.replay.chunk-kb:64}") int chunkKb,
+                       @Value("${game.replay.keyframe-interval:1800}") int keyframeInterval,
+                       @Value("${game.replay.max-files:500}") int maxFiles,
+                       @Value("${game.replay.max-mb:256}") int maxMb) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.chunkBytes = chunkKb * 1024;
+        this.keyframeInterval = keyframeInterval;
+        this.maxFiles = maxFiles;
+        this.maxBytes = maxMb * 1024L * 1024L;
+
+        if (enabled) {
+            System.out.printf("📼 Replays are recorded to %s, keyframe every %d ticks, keeping %d files / %d MB%n",
+                    this.directory, keyframeInterval, maxFiles, maxMb);
+        }
+    }
+
+    /**
+     * Начинает запись раунда; null - запись выключена или файл не создается (бой идет без записи)
+     */
+    public ReplayRecorder record(String matchId, int round, long seed, GameMode mode, int teamCount,
+                                 String[] ais, TankProfile[] profiles) {
+        if (!enabled) {
+            return null;
+        }
+        String id = matchId + "-r" + round;
+        try {
+            Files.createDirectories(directory);
+            prune();
+            ReplayRecorder recorder = new ReplayRecorder(id, directory.resolve(id + EXTENSION), chunkBytes,
+                    keyframeInterval, matchId, round, seed, mode, teamCount, ais, profiles);
+            recording.put(recorder.getPath(), recorder);
+            return recorder;
+        } catch (IOException e) {
+            System.err.println("❌ Cannot record replay " + id + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Номера записей, новые первыми
+     */
+    public List<String> list() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+                    .sorted(Comparator.comparing(ReplayStore::lastModified).reversed())
+                    .map(file -> {
+                        String name = file.getFileName().toString();
+                        return name.substring(0, name.length() - EXTENSION.length());
+                    })
+                    .toList();
+        }
+    }
+
+    /**
+     * Файл записи; null - номер неправильный или записи нет
+     */
+    public Path resolve(String id) {
+        if (id == null || !ID.matcher(id).matches()) {
+            return null;
+        }
+        Path file = directory.resolve(id + EXTENSION);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Открывает запись для чтения; null - записи нет
+     */
+    public ReplayReader open(String id) throws IOException {
+        Path file = resolve(id);
+        return file != null ? ReplayReader.open(file) : null;
+    }
+
+    /**
+     * Освобождает место под новую запись: удаляет самые старые законченные записи,
+     * пока их не меньше max-files или вместе они больше max-mb (0 - без ограничения)
+     */
+    private synchronized void prune() {
+        if (maxFiles <= 0 && maxBytes <= 0) {
+            return;
+        }
+        recording.values().removeIf(ReplayRecorder::isClosed);
+
+        List<Path> files;
+        try (Stream<Path> listed = Files.list(directory)) {
+            files = listed.filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+                    .sorted(Comparator.comparing(ReplayStore::lastModified))
+                    .toList();
+        } catch (IOException e) {
+            System.err.println("❌ Cannot list replays: " + e.getMessage());
+            return;
+        }
+
+        int count = files.size();
+        long bytes = files.stream().mapToLong(ReplayStore::size).sum();
+        int deleted = 0;
+        for (Path file : files) {
+            boolean tooMany = maxFiles > 0 && count >= maxFiles;
+            boolean tooLarge = maxBytes > 0 && bytes > maxBytes;
+            if (!tooMany && !tooLarge) {
+                break;
+            }
+            if (recording.containsKey(file)) {
+                continue;
+            }
+            long fileBytes = size(file);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("❌ Cannot delete replay " + file.getFileName() + ": " + e.getMessage());
+                continue;
+            }
+            count--;
+            bytes -= fileBytes;
+            deleted++;
+        }
+        if (deleted > 0) {
+            System.out.printf("🧹 Deleted %d old replays, %d left (%d KB)%n", deleted, count, bytes / 1024);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.my.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Часы симуляции одного матча.
+ * Время считается в тиках, а не в миллисекундах, поэтому результат боя
+ * не зависит от скорости сервера: матч можно прогнать быстрее реального времени.
+ * Все случайные числа матча получаются из одного зерна (seed).
+ */
+public class SimulationClock {
+
+    /**
+     * Номинальная частота симуляции: все длительности в игре задаются относительно нее
+     */
+    public static final int TICKS_PER_SECOND = 60;
+
+    private final long seed;
+    private final SplittableRandom random;
+    private long tick = 0L;
+
+    public SimulationClock(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public void advance() {
+        tick++;
+    }
+
+    /**
+     * Переставляет часы на тик ключевого кадра (перемотка повтора); генераторы не меняются
+     */
+    public void setTick(long tick) {
+        this.tick = tick;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Отдельный детерминированный генератор (например, для танка),
+     * не влияющий на последовательность остальных
+     */
+    public SplittableRandom split() {
+        return random.split();
+    }
+
+    /**
+     * Переводит миллисекунды игрового времени в тики (с округлением вверх, минимум 1 тик)
+     */
+    public static int millisToTicks(long millis) {
+        return (int) Math.max(1, (millis * TICKS_PER_SECOND + 999) / 1000);
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.my.engine;
+
+import java.util.Arrays;
+
+/**
+ * Равномерная сетка для быстрого поиска танков рядом с точкой (broadphase).
+ * Каждая ячейка - двусвязный список на массивах; объект перекладывается
+ * в другую ячейку только когда действительно пересек ее границу.
+ * Размер ячейки должен быть не меньше радиуса типичного запроса, тогда запрос смотрит не больше 3x3 ячеек.
+ */
+public class SpatialGrid {
+
+    private static final int NONE = -1;
+
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    private final int[] head;
+
+    private int[] next;
+    private int[] prev;
+    private int[] cellOf;
+
+    public SpatialGrid(double width, double height, double cellSize, int capacity) {
+        this.cellSize = cellSize;
+        this.cols = (int) Math.ceil(width / cellSize) + 1;
+        this.rows = (int) Math.ceil(height / cellSize) + 1;
+        this.head = new int[cols * rows];
+        Arrays.fill(head, NONE);
+
+        int initial = Math.max(capacity, 1);
+        this.next = new int[initial];
+        this.prev = new int[initial];
+        this.cellOf = new int[initial];
+        Arrays.fill(cellOf, NONE);
+    }
+
+    /**
+     * Ставит объект в ячейку, соответствующую (x, y); если ячейка не изменилась - ничего не делает
+     */
+    public void move(int id, double x, double y) {
+        ensureCapacity(id);
+        int cell = cellIndex(x, y);
+        if (cellOf[id] == cell) {
+            return;
+        }
+        unlink(id);
+        link(id, cell);
+    }
+
+    public void remove(int id) {
+        if (id < cellOf.length) {
+            unlink(id);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(head, NONE);
+        Arrays.fill(cellOf, NONE);
+    }
+
+    /**
+     * Складывает в out всех кандидатов из ячеек, пересекающих квадрат вокруг (x, y).
+     * Точную проверку расстояния (narrowphase) выполняет вызывающий код.
+     * Возвращает количество найденных кандидатов
+     */
+    public int query(double x, double y, double radius, int[] out) {
+        int c0 = clampCol(x - radius);
+        int c1 = clampCol(x + radius);
+        int r0 = clampRow(y - radius);
+        int r1 = clampRow(y + radius);
+
+        int count = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                for (int id = head[r * cols + c]; id != NONE; id = next[id]) {
+                    out[count++] = id;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void link(int id, int cell) {
+        int first = head[cell];
+        next[id] = first;
+        prev[id] = NONE;
+        if (first != NONE) {
+            prev[first] = id;
+        }
+        head[cell] = id;
+        cellOf[id] = cell;
+    }
+
+    private void unlink(int id) {
+        int cell = cellOf[id];
+        if (cell == NONE) {
+            return;
+        }
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            head[cell] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+        cellOf[id] = NONE;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < cellOf.length) {
+            return;
+        }
+        int capacity = Math.max(cellOf.length * 2, id + 1);
+        int oldLength = cellOf.length;
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        cellOf = Arrays.copyOf(cellOf, capacity);
+        Arrays.fill(cellOf, oldLength, capacity, NONE);
+    }
+
+    private int cellIndex(double x, double y) {
+        return clampRow(y) * cols + clampCol(x);
+    }
+
+    private int clampCol(double x) {
+        int c = (int) (x / cellSize);
+        return c < 0 ? 0 : Math.min(c, cols - 1);
+    }
+
+    private int clampRow(double y) {
+        int r = (int) (y / cellSize);
+        return r < 0 ? 0 : Math.min(r, rows - 1);
+    }
+}
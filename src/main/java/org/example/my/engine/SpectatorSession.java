@@ -0,0 +1,212 @@
+package org.example.my.engine;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Зритель двоичных кадров со своей очередью отправки. Поток шарда только кладет в очередь
+ * общий для всех зрителей массив байт и никогда не ждет сеть; отправку начинает пул рассылки,
+ * не больше одной отправки на зрителя одновременно, поэтому кадры уходят по порядку.
+ * Если контейнер умеет асинхронную отправку (jakarta.websocket), поток не ждет и медленного
+ * клиента: следующий кадр уходит из обработчика завершения предыдущего.
+ * Очередь ограничена: если зритель не успевает, накопленные кадры выбрасываются, а вместо
+ * нового кадра ставится полный кадр того же тика - зритель сразу получает последнее состояние.
+ */
+public class SpectatorSession {
+
+    // Сколько Tomcat ждет блокирующей отправки одного сообщения (по умолчанию 20 с)
+    private static final String TOMCAT_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final String matchId;
+    private final WebSocketSession session;
+    private final int capacity;
+    private final Executor sender;
+    private final MatchBroadcaster broadcaster;
+    private final RemoteEndpoint.Async async;
+
+    private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile boolean finishing;
+
+    SpectatorSession(String matchId, WebSocketSession session, int capacity, long sendTimeLimitMillis,
+                     Executor sender, MatchBroadcaster broadcaster) {
+        this.matchId = matchId;
+        this.session = session;
+        this.capacity = Math.max(1, capacity);
+        this.sender = sender;
+        this.broadcaster = broadcaster;
+
+        // Зависшая отправка должна завершиться ошибкой через sendTimeLimitMillis
+        Session endpoint = session instanceof NativeWebSocketSession nativeSession
+                ? nativeSession.getNativeSession(Session.class)
+                : null;
+        if (endpoint != null) {
+            endpoint.getUserProperties().put(TOMCAT_SEND_TIMEOUT, sendTimeLimitMillis);
+            this.async = endpoint.getAsyncRemote();
+            async.setSendTimeout(sendTimeLimitMillis);
+        } else {
+            this.async = null;
+        }
+    }
+
+    /**
+     * Ставит кадр в очередь. keyframe - полный кадр с тем же номером (общий для всех зрителей),
+     * он заменяет кадр, если очередь переполнена.
+     */
+    public void offer(byte[] frame, Supplier<byte[]> keyframe) {
+        if (closed || finishing) {
+            return;
+        }
+
+        byte[] message = frame;
+        if (depth.get() >= capacity) {
+            int dropped = 0;
+            while (queue.poll() != null) {
+                depth.decrementAndGet();
+                dropped++;
+            }
+            message = keyframe.get();
+            broadcaster.onDropped(dropped);
+        }
+
+        queue.add(message);
+        depth.incrementAndGet();
+        schedule();
+    }
+
+    /**
+     * Последний кадр: после его отправки соединение закрывается
+     */
+    public void finish(byte[] frame) {
+        finishing = true;
+        queue.add(frame);
+        depth.incrementAndGet();
+        schedule();
+    }
+
+    public String getMatchId() {
+        return matchId;
+    }
+
+    public int getDepth() {
+        return depth.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Закрывает соединение; кадры, которые еще не ушли, выбрасываются
+     */
+    public void close(CloseStatus status) {
+        closed = true;
+        queue.clear();
+        depth.set(0);
+        try {
+            session.close(status);
+        } catch (IOException | RuntimeException e) {
+            // Соединение уже закрыто
+        }
+    }
+
+    private void schedule() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sender.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // Сервер останавливается
+            draining.set(false);
+        }
+    }
+
+    private void drain() {
+        if (async != null) {
+            sendNextAsync();
+            return;
+        }
+        try {
+            byte[] message;
+            while ((message = poll()) != null) {
+                session.sendMessage(new BinaryMessage(message));
+                broadcaster.onSent(message.length);
+            }
+            drained();
+        } catch (IOException | RuntimeException e) {
+            fail();
+        }
+    }
+
+    // Следующий кадр отправляется из обработчика завершения предыдущего
+    private void sendNextAsync() {
+        byte[] message = poll();
+        if (message == null) {
+            drained();
+            return;
+        }
+        try {
+            // Обертка над общим массивом: байты кадра не копируются
+            async.sendBinary(ByteBuffer.wrap(message), (SendResult result) -> {
+                if (result.isOK()) {
+                    broadcaster.onSent(message.length);
+                    sendNextAsync();
+                } else {
+                    fail();
+                }
+            });
+        } catch (RuntimeException e) {
+            fail();
+        }
+    }
+
+    private byte[] poll() {
+        if (closed) {
+            return null;
+        }
+        byte[] message = queue.poll();
+        if (message != null) {
+            depth.decrementAndGet();
+        }
+        return message;
+    }
+
+    private void drained() {
+        draining.set(false);
+        if (closed) {
+            return;
+        }
+        if (finishing && queue.isEmpty()) {
+            close(CloseStatus.GOING_AWAY);
+        } else if (!queue.isEmpty()) {
+            // Кадр мог прийти между последней проверкой очереди и сбросом флага
+            schedule();
+        }
+    }
+
+    private void fail() {
+        draining.set(false);
+        if (!closed) {
+            broadcaster.onFailed(this);
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.my.engine;
+
+/**
+ * Непрерывная (swept) проверка попаданий: отрезок движения пули против круга танка.
+ * В отличие от проверки расстояния в конце тика, не пропускает танк,
+ * через который пуля "перепрыгнула" за один шаг.
+ */
+public final class SweptCollision {
+
+    /**
+     * Пересечения нет
+     */
+    public static final double NO_HIT = Double.POSITIVE_INFINITY;
+
+    private SweptCollision() {
+    }
+
+    /**
+     * Момент первого касания круга за тик, от 0 (начало шага) до 1 (конец шага), либо NO_HIT.
+     * Оба объекта движутся равномерно: пуля из (bx0, by0) в (bx1, by1), центр круга из (cx0, cy0) в (cx1, cy1).
+     * Считаем в системе отсчета круга, поэтому его собственное движение тоже учитывается.
+     */
+    public static double timeOfImpact(double bx0, double by0, double bx1, double by1,
+                                      double cx0, double cy0, double cx1, double cy1,
+                                      double radius) {
+        // Начало и смещение пули относительно центра круга
+        double px = bx0 - cx0;
+        double py = by0 - cy0;
+        double vx = (bx1 - cx1) - px;
+        double vy = (by1 - cy1) - py;
+
+        double radiusSq = radius * radius;
+        double c = px * px + py * py - radiusSq;
+        if (c < 0) {
+            // Пуля уже внутри круга в начале шага
+            return 0;
+        }
+
+        double a = vx * vx + vy * vy;
+        if (a == 0) {
+            return NO_HIT;
+        }
+
+        double b = px * vx + py * vy;
+        if (b >= 0) {
+            // Пуля удаляется от центра
+            return NO_HIT;
+        }
+
+        // Уравнение |p + t*v|^2 = r^2, берем меньший корень
+        double discriminant = b * b - a * c;
+        if (discriminant < 0) {
+            return NO_HIT;
+        }
+
+        double t = (-b - StrictMath.sqrt(discriminant)) / a;
+        return t <= 1 ? t : NO_HIT;
+    }
+}
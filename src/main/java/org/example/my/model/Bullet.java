@@ -25,13 +25,14 @@ public class Bullet {
     @Builder.Default
     private double damage = 25.0;
 
+    // Время жизни в тиках симуляции
     @Builder.Default
-    private int lifetime = 2000;
+    private int lifetimeTicks = 120;
 
     private Car owner;
 
     @Builder.Default
-    private long creationTime = System.currentTimeMillis();
+    private int ageTicks = 0;
 
     @Builder.Default
     private boolean active = true;
@@ -39,12 +40,12 @@ public class Bullet {
     public void update() {
         if (!active) return;
 
-        double radianAngle = Math.toRadians(angle);
-        x += Math.cos(radianAngle) * speed;
-        y += Math.sin(radianAngle) * speed;
+        double radianAngle = StrictMath.toRadians(angle);
+        x += StrictMath.cos(radianAngle) * speed;
+        y += StrictMath.sin(radianAngle) * speed;
 
         // Проверка времени жизни
-        if (System.currentTimeMillis() - creationTime > lifetime) {
+        if (++ageTicks > lifetimeTicks) {
             active = false;
         }
 
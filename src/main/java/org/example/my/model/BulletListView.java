@@ -0,0 +1,79 @@
+package org.example.my.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Представление пуль пула в виде Collection&lt;Bullet&gt; для AI со старым интерфейсом CarAI.
+ * Объекты Bullet - отсоединенные копии: их изменение не влияет на движок.
+ * Копии переиспользуются между тиками и заполняются лениво, только если AI действительно читает пули.
+ */
+public class BulletListView extends AbstractList<Bullet> {
+
+    private final IntFunction<Car> owners;
+    private BulletView bullets;
+    private final List<Bullet> mirror = new ArrayList<>();
+    private int filled = 0;
+    private boolean stale = true;
+
+    /**
+     * owners по номеру танка возвращает объект Car, который будет указан владельцем пули
+     */
+    public BulletListView(BulletView bullets, IntFunction<Car> owners) {
+        this.bullets = bullets;
+        this.owners = owners;
+    }
+
+    /**
+     * Переключает представление на новые пули (раз в тик)
+     */
+    public void reset(BulletView bullets) {
+        this.bullets = bullets;
+        this.stale = true;
+    }
+
+    @Override
+    public Bullet get(int index) {
+        refresh();
+        if (index < 0 || index >= filled) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + filled);
+        }
+        return mirror.get(index);
+    }
+
+    @Override
+    public int size() {
+        refresh();
+        return filled;
+    }
+
+    private void refresh() {
+        if (!stale) {
+            return;
+        }
+
+        int count = bullets.size();
+        while (mirror.size() < count) {
+            mirror.add(new Bullet());
+        }
+
+        for (int i = 0; i < count; i++) {
+            Bullet bullet = mirror.get(i);
+            bullet.setX(bullets.x(i));
+            bullet.setY(bullets.y(i));
+            bullet.setAngle(bullets.angle(i));
+            bullet.setSpeed(StrictMath.sqrt(bullets.dx(i) * bullets.dx(i) + bullets.dy(i) * bullets.dy(i)));
+            bullet.setDamage(bullets.damage(i));
+            bullet.setLifetimeTicks(bullets.ticksLeft(i));
+            bullet.setAgeTicks(0);
+            int ownerIndex = bullets.owner(i);
+            bullet.setOwner(ownerIndex >= 0 ? owners.apply(ownerIndex) : null);
+            bullet.setActive(true);
+        }
+
+        filled = count;
+        stale = false;
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.my.model;
+
+import java.util.Arrays;
+
+/**
+ * Хранилище пуль в виде параллельных примитивных массивов (structure of arrays).
+ * Пуля - это индекс в колонках x/y/dx/dy/ttl/owner/damage; удаление - перенос последней пули на место удаленной.
+ * В установившемся режиме не создает объектов ни при обновлении, ни при удалении.
+ * Индекс пули меняется при удалении других пуль, поэтому у каждой пули есть постоянный номер (id).
+ */
+public class BulletPool implements BulletView {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final double width;
+    private final double height;
+
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] dx = new double[INITIAL_CAPACITY];
+    private double[] dy = new double[INITIAL_CAPACITY];
+    private double[] angle = new double[INITIAL_CAPACITY];
+    private double[] damage = new double[INITIAL_CAPACITY];
+    private int[] ttl = new int[INITIAL_CAPACITY];
+    private int[] owner = new int[INITIAL_CAPACITY];
+    private int[] id = new int[INITIAL_CAPACITY];
+    private int size = 0;
+    private int nextId = 0;
+
+    public BulletPool(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Добавляет пулю; направление движения считается один раз здесь, а не на каждом тике
+     */
+    public int spawn(double startX, double startY, double angleDegrees, double speed,
+                     int lifetimeTicks, int ownerIndex, double bulletDamage) {
+        if (size == x.length) {
+            grow();
+        }
+
+        double radianAngle = StrictMath.toRadians(angleDegrees);
+        int i = size++;
+        x[i] = startX;
+        y[i] = startY;
+        dx[i] = StrictMath.cos(radianAngle) * speed;
+        dy[i] = StrictMath.sin(radianAngle) * speed;
+        angle[i] = angleDegrees;
+        damage[i] = bulletDamage;
+        ttl[i] = lifetimeTicks;
+        owner[i] = ownerIndex;
+        id[i] = nextId++;
+        return i;
+    }
+
+    /**
+     * Сдвигает все пули на один тик и удаляет истекшие и вылетевшие за границы поля
+     */
+    public void update() {
+        move();
+        removeExpired();
+    }
+
+    /**
+     * Сдвигает все пули на один тик, ничего не удаляя.
+     * Между move() и removeExpired() движок проверяет попадания на отрезке движения каждой пули.
+     */
+    public void move() {
+        for (int i = 0; i < size; i++) {
+            x[i] += dx[i];
+            y[i] += dy[i];
+            ttl[i]--;
+        }
+    }
+
+    /**
+     * Удаляет пули, у которых истекло время жизни или которые вылетели за границы поля
+     */
+    public void removeExpired() {
+        int i = 0;
+        while (i < size) {
+            if (ttl[i] < 0 || x[i] < 0 || x[i] > width || y[i] < 0 || y[i] > height) {
+                remove(i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Удаляет пулю, перенося на ее место последнюю. Вызывающий код не должен увеличивать индекс.
+     */
+    public void remove(int index) {
+        int last = --size;
+        if (index != last) {
+            x[index] = x[last];
+            y[index] = y[last];
+            dx[index] = dx[last];
+            dy[index] = dy[last];
+            angle[index] = angle[last];
+            damage[index] = damage[last];
+            ttl[index] = ttl[last];
+            owner[index] = owner[last];
+            id[index] = id[last];
+        }
+    }
+
+    /**
+     * Неизменяемая копия текущих пуль для снимка мира
+     */
+    public BulletSnapshot snapshot() {
+        return new BulletSnapshot(size, x, y, dx, dy, angle, damage, ttl, owner, id);
+    }
+
+    /**
+     * Удаляет все пули; номера новых пуль снова начинаются с нуля
+     */
+    public void clear() {
+        size = 0;
+        nextId = 0;
+    }
+
+    /**
+     * Удаляет все пули; следующая пуля получит номер firstId (перемотка повтора к ключевому кадру)
+     */
+    public void clear(int firstId) {
+        size = 0;
+        nextId = firstId;
+    }
+
+    /**
+     * Добавляет пулю в точности такой, какой она была в ключевом кадре записи (с тем же номером)
+     */
+    public void restore(int bulletId, int ownerIndex, double bulletX, double bulletY, double bulletDx, double bulletDy,
+                        double angleDegrees, double bulletDamage, int ticksLeft) {
+        if (size == x.length) {
+            grow();
+        }
+        int i = size++;
+        x[i] = bulletX;
+        y[i] = bulletY;
+        dx[i] = bulletDx;
+        dy[i] = bulletDy;
+        angle[i] = angleDegrees;
+        damage[i] = bulletDamage;
+        ttl[i] = ticksLeft;
+        owner[i] = ownerIndex;
+        id[i] = bulletId;
+    }
+
+    /**
+     * Номер, который получит следующая пуля
+     */
+    public int nextId() {
+        return nextId;
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        angle = Arrays.copyOf(angle, capacity);
+        damage = Arrays.copyOf(damage, capacity);
+        ttl = Arrays.copyOf(ttl, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+        id = Arrays.copyOf(id, capacity);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double x(int index) {
+        return x[index];
+    }
+
+    @Override
+    public double y(int index) {
+        return y[index];
+    }
+
+    @Override
+    public double angle(int index) {
+        return angle[index];
+    }
+
+    @Override
+    public double dx(int index) {
+        return dx[index];
+    }
+
+    @Override
+    public double dy(int index) {
+        return dy[index];
+    }
+
+    @Override
+    public double damage(int index) {
+        return damage[index];
+    }
+
+    @Override
+    public int owner(int index) {
+        return owner[index];
+    }
+
+    @Override
+    public int ticksLeft(int index) {
+        return ttl[index];
+    }
+
+    @Override
+    public int id(int index) {
+        return id[index];
+    }
+}
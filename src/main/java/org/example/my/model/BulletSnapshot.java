@@ -0,0 +1,82 @@
+package org.example.my.model;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемая копия пуль на начало тика. Создается пулом через BulletPool.snapshot().
+ */
+public final class BulletSnapshot implements BulletView {
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] dx;
+    private final double[] dy;
+    private final double[] angle;
+    private final double[] damage;
+    private final int[] ttl;
+    private final int[] owner;
+    private final int[] id;
+
+    BulletSnapshot(int size, double[] x, double[] y, double[] dx, double[] dy,
+                   double[] angle, double[] damage, int[] ttl, int[] owner, int[] id) {
+        this.x = Arrays.copyOf(x, size);
+        this.y = Arrays.copyOf(y, size);
+        this.dx = Arrays.copyOf(dx, size);
+        this.dy = Arrays.copyOf(dy, size);
+        this.angle = Arrays.copyOf(angle, size);
+        this.damage = Arrays.copyOf(damage, size);
+        this.ttl = Arrays.copyOf(ttl, size);
+        this.owner = Arrays.copyOf(owner, size);
+        this.id = Arrays.copyOf(id, size);
+    }
+
+    @Override
+    public int size() {
+        return x.length;
+    }
+
+    @Override
+    public double x(int index) {
+        return x[index];
+    }
+
+    @Override
+    public double y(int index) {
+        return y[index];
+    }
+
+    @Override
+    public double angle(int index) {
+        return angle[index];
+    }
+
+    @Override
+    public double dx(int index) {
+        return dx[index];
+    }
+
+    @Override
+    public double dy(int index) {
+        return dy[index];
+    }
+
+    @Override
+    public double damage(int index) {
+        return damage[index];
+    }
+
+    @Override
+    public int owner(int index) {
+        return owner[index];
+    }
+
+    @Override
+    public int ticksLeft(int index) {
+        return ttl[index];
+    }
+
+    @Override
+    public int id(int index) {
+        return id[index];
+    }
+}
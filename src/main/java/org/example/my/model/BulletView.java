@@ -0,0 +1,41 @@
+package org.example.my.model;
+
+/**
+ * Доступ только для чтения к пулям матча по индексу.
+ * Индексы действительны только в пределах текущего тика: при удалении пуль они переупорядочиваются.
+ */
+public interface BulletView {
+
+    int size();
+
+    double x(int index);
+
+    double y(int index);
+
+    double angle(int index);
+
+    // Смещение за один тик (направление уже умножено на скорость)
+    double dx(int index);
+
+    double dy(int index);
+
+    // Позиция в начале текущего тика: пули движутся равномерно, поэтому хранить ее отдельно не нужно
+    default double prevX(int index) {
+        return x(index) - dx(index);
+    }
+
+    default double prevY(int index) {
+        return y(index) - dy(index);
+    }
+
+    double damage(int index);
+
+    // Номер танка-владельца
+    int owner(int index);
+
+    // Сколько тиков пуля еще проживет
+    int ticksLeft(int index);
+
+    // Постоянный номер пули (индекс меняется при удалении других пуль, номер - нет)
+    int id(int index);
+}
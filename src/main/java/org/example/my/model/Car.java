@@ -2,9 +2,12 @@ package org.example.my.model;
 
 import lombok.Data;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.util.SplittableRandom;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -34,14 +37,15 @@ public class Car {
     @Builder.Default
     private boolean alive = true;
 
+    // Сколько тиков осталось до перезарядки (0 - можно стрелять)
     @Builder.Default
-    private long lastShotTime = 0L;
+    private int reloadTicks = 0;
 
     @Builder.Default
-    private long shootCooldown = 1000L;
+    private int shootCooldownTicks = 60;
 
     @Builder.Default
-    private int bulletLifetime = 2000;
+    private int bulletLifetimeTicks = 120;
 
     @Builder.Default
     private String name = "Car";
@@ -49,15 +53,20 @@ public class Car {
     @Builder.Default
     private int score = 0;
 
+    // Детерминированный генератор танка, выдается движком из зерна матча
+    @EqualsAndHashCode.Exclude
+    @Builder.Default
+    private SplittableRandom random = new SplittableRandom(0L);
+
     public Car(double x, double y, double angle) {
         this.position = new Position(x, y, angle);
     }
 
     public void update() {
         // Обновление позиции на основе скорости и направления
-        double radianAngle = Math.toRadians(position.getAngle());
-        double newX = position.getX() + Math.cos(radianAngle) * speed;
-        double newY = position.getY() + Math.sin(radianAngle) * speed;
+        double radianAngle = StrictMath.toRadians(position.getAngle());
+        double newX = position.getX() + StrictMath.cos(radianAngle) * speed;
+        double newY = position.getY() + StrictMath.sin(radianAngle) * speed;
 
         // Проверка границ
         newX = Math.max(0, Math.min(800, newX));
@@ -72,6 +81,11 @@ public class Car {
         } else if (speed < 0) {
             speed = Math.min(0, speed + deceleration);
         }
+
+        // Перезарядка считается в тиках симуляции
+        if (reloadTicks > 0) {
+            reloadTicks--;
+        }
     }
 
     public void moveForward(double power) {
@@ -96,46 +110,39 @@ public class Car {
         position.setAngle(normalizeAngle(newAngle));
     }
 
-    public Bullet shoot() {
-        long currentTime = System.currentTimeMillis();
+    /**
+     * Выстрел: создает пулю прямо в пуле матча, без промежуточного объекта.
+     * Возвращает индекс пули или -1, если танк перезаряжается
+     */
+    public int shoot(BulletPool bullets, int ownerIndex) {
         if (canShoot()) {
-            lastShotTime = currentTime;
+            reloadTicks = shootCooldownTicks;
 
             // ПОСТОЯННАЯ СКОРОСТЬ ПУЛЬ
             double bulletSpeed = 6.0; // Все пули летят с одинаковой скоростью
 
-            double radianAngle = Math.toRadians(position.getAngle());
-            double startX = position.getX() + Math.cos(radianAngle) * 25;
-            double startY = position.getY() + Math.sin(radianAngle) * 25;
-
-            return Bullet.builder()
-                    .x(startX)
-                    .y(startY)
-                    .angle(position.getAngle())
-                    .speed(bulletSpeed)
-                    .owner(this)
-                    .damage(25)
-                    .lifetime(bulletLifetime)
-                    .active(true)
-                    .build();
+            double radianAngle = StrictMath.toRadians(position.getAngle());
+            double startX = position.getX() + StrictMath.cos(radianAngle) * 25;
+            double startY = position.getY() + StrictMath.sin(radianAngle) * 25;
+
+            return bullets.spawn(startX, startY, position.getAngle(), bulletSpeed,
+                    bulletLifetimeTicks, ownerIndex, 25);
         }
-        return null;
+        return -1;
     }
 
     public boolean canShoot() {
-        long currentTime = System.currentTimeMillis();
-        return alive && (currentTime - lastShotTime) >= shootCooldown;
+        return alive && reloadTicks == 0;
     }
 
     public void takeDamage(int damage) {
         if (alive) {
             health = Math.max(0, health - damage);
-            System.out.printf("💢 %s took %d damage, health now: %d%n", name, damage, health);
 
+            // Попадания и уничтожение логирует движок
             if (health <= 0) {
                 alive = false;
                 speed = 0.0;
-                System.out.printf("💀 %s is DESTROYED!%n", name);
             }
         }
     }
@@ -151,7 +158,7 @@ public class Car {
         this.health = maxHealth;
         this.speed = 0.0;
         this.alive = true;
-        this.lastShotTime = System.currentTimeMillis();
+        this.reloadTicks = shootCooldownTicks;
         System.out.println(name + " respawned with full health");
     }
 
@@ -186,12 +193,12 @@ public class Car {
         return health;
     }
 
-    public long getShootCooldown() {
-        return shootCooldown;
+    public int getShootCooldownTicks() {
+        return shootCooldownTicks;
     }
 
-    public int getBulletLifetime() {
-        return bulletLifetime;
+    public int getBulletLifetimeTicks() {
+        return bulletLifetimeTicks;
     }
 
     @Override
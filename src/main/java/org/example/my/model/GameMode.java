@@ -0,0 +1,16 @@
+package org.example.my.model;
+
+/**
+ * Режим боя
+ */
+public enum GameMode {
+    /**
+     * Каждый сам за себя
+     */
+    FFA,
+
+    /**
+     * Командный бой: танки делятся на команды, союзники друг по другу не попадают
+     */
+    TEAMS
+}
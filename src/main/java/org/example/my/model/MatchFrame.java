@@ -0,0 +1,21 @@
+package org.example.my.model;
+
+import java.util.List;
+
+/**
+ * Состояние боя после тика для рассылки зрителям.
+ * round меняется при каждом перезапуске боя: тики и номера пуль нового раунда начинаются заново.
+ */
+public record MatchFrame(int round, long tick, GameMode mode, long seed,
+                         boolean running, boolean gameOver, int winner,
+                         List<TankState> tanks, List<String> ais,
+                         List<Integer> overruns, List<Boolean> suspended,
+                         BulletView bullets) {
+
+    public MatchFrame {
+        tanks = List.copyOf(tanks);
+        ais = List.copyOf(ais);
+        overruns = List.copyOf(overruns);
+        suspended = List.copyOf(suspended);
+    }
+}
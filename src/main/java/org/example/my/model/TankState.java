@@ -0,0 +1,52 @@
+package org.example.my.model;
+
+/**
+ * Неизменяемое состояние танка на начало тика.
+ * AI читают его из снимка мира и не могут повлиять на танк движка.
+ */
+public record TankState(int index, int team, String name,
+                        double x, double y, double angle,
+                        double speed, double maxSpeed, double acceleration, double rotationSpeed,
+                        int health, int maxHealth, boolean alive,
+                        int reloadTicks, int shootCooldownTicks, int bulletLifetimeTicks, int score) {
+
+    public static TankState of(int index, int team, Car car) {
+        Position pos = car.getPosition();
+        return new TankState(index, team, car.getName(),
+                pos.getX(), pos.getY(), pos.getAngle(),
+                car.getSpeed(), car.getMaxSpeed(), car.getAcceleration(), car.getRotationSpeed(),
+                car.getHealth(), car.getMaxHealth(), car.isAlive(),
+                car.getReloadTicks(), car.getShootCooldownTicks(), car.getBulletLifetimeTicks(), car.getScore());
+    }
+
+    public boolean canShoot() {
+        return alive && reloadTicks == 0;
+    }
+
+    /**
+     * Переписывает состояние в отсоединенную копию Car (для AI со старым интерфейсом).
+     * Генератор случайных чисел не копируется: его выдает тот, кто владеет копией.
+     */
+    public void copyTo(Car car) {
+        Position pos = car.getPosition();
+        if (pos == null) {
+            car.setPosition(new Position(x, y, angle));
+        } else {
+            pos.setX(x);
+            pos.setY(y);
+            pos.setAngle(angle);
+        }
+        car.setName(name);
+        car.setSpeed(speed);
+        car.setMaxSpeed(maxSpeed);
+        car.setAcceleration(acceleration);
+        car.setRotationSpeed(rotationSpeed);
+        car.setHealth(health);
+        car.setMaxHealth(maxHealth);
+        car.setAlive(alive);
+        car.setReloadTicks(reloadTicks);
+        car.setShootCooldownTicks(shootCooldownTicks);
+        car.setBulletLifetimeTicks(bulletLifetimeTicks);
+        car.setScore(score);
+    }
+}
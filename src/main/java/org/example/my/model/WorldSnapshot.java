@@ -0,0 +1,22 @@
+package org.example.my.model;
+
+import java.util.List;
+
+/**
+ * Неизменяемый снимок мира на начало тика. Движок публикует его один раз за тик,
+ * и все AI принимают решения по нему, в том числе параллельно.
+ */
+public record WorldSnapshot(long tick, GameMode mode, List<TankState> tanks, BulletView bullets) {
+
+    public WorldSnapshot {
+        tanks = List.copyOf(tanks);
+    }
+
+    public int tankCount() {
+        return tanks.size();
+    }
+
+    public TankState tank(int index) {
+        return tanks.get(index);
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.my.tournament;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Итоги кругового турнира: матрица побед и сводная статистика по каждому участнику
+ */
+@Data
+@Builder
+public class TournamentResult {
+
+    private List<String> entrants;
+
+    // wins[i][j] - сколько раз участник i победил участника j
+    private int[][] wins;
+
+    // draws[i][j] - ничьи между i и j (включая бои, упершиеся в лимит тиков)
+    private int[][] draws;
+
+    private List<EntrantStats> standings;
+
+    private int matchesPerPairing;
+    private int maxTicks;
+    private long seed;
+    private int totalGames;
+    private int failedGames;
+    private long totalTicks;
+    private long elapsedMillis;
+    private double gamesPerSecond;
+    private double ticksPerSecond;
+    private int parallelism;
+
+    @Data
+    @Builder
+    public static class EntrantStats {
+        private String id;
+        private String name;
+        private int games;
+        private int wins;
+        private int losses;
+        private int draws;
+        private double winRate;
+        private double averageTicks;
+    }
+}
@@ -0,0 +1,207 @@
+package org.example.my.tournament;
+
+import jakarta.annotation.PreDestroy;
+import org.example.my.ai.AIRegistry;
+import org.example.my.ai.CarAI;
+import org.example.my.controller.GameEngine;
+import org.example.my.engine.DecisionWatchdog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Круговой турнир между всеми встроенными и загруженными пользовательскими AI.
+ * Бои идут без отрисовки и логирования, параллельно на отдельном fork-join пуле.
+ */
+@Service
+public class TournamentService {
+
+    private static final int GAME_FAILED = -1;
+
+    @Autowired
+    private AIRegistry aiRegistry;
+
+    // Пользовательские AI и в турнире решают под бюджетом времени: зависший AI проигрывает, а не вешает турнир
+    @Autowired
+    private DecisionWatchdog watchdog;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private record Entrant(String id, String name, Supplier<CarAI> factory) {
+    }
+
+    /**
+     * Все участники: шаблонные AI (Spring-компоненты) и успешно скомпилированные пользовательские
+     */
+    public List<Map<String, String>> getEntrantNames() {
+        List<Map<String, String>> result = new ArrayList<>();
+        for (Entrant entrant : collectEntrants()) {
+            result.add(Map.of("id", entrant.id(), "name", entrant.name()));
+        }
+        return result;
+    }
+
+    public TournamentResult runTournament(int matchesPerPairing, int maxTicks, long seed) {
+        List<Entrant> entrants = collectEntrants();
+        int n = entrants.size();
+
+        // Раскладываем все бои в плоские массивы, чтобы параллельные задачи писали каждая в свою ячейку
+        int total = n * (n - 1) / 2 * matchesPerPairing;
+        int[] first = new int[total];
+        int[] second = new int[total];
+        int game = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                for (int k = 0; k < matchesPerPairing; k++) {
+                    // Меняем стороны через бой: стартовые позиции не равноценны
+                    first[game] = k % 2 == 0 ? i : j;
+                    second[game] = k % 2 == 0 ? j : i;
+                    game++;
+                }
+            }
+        }
+
+        int[] winners = new int[total];
+        int[] ticks = new int[total];
+
+        long start = System.nanoTime();
+        try {
+            pool.submit(() -> IntStream.range(0, total).parallel().forEach(g -> {
+                playGame(g, entrants.get(first[g]), entrants.get(second[g]), maxTicks, seed, winners, ticks);
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        return summarize(entrants, first, second, winners, ticks, matchesPerPairing, maxTicks, seed, elapsedNanos);
+    }
+
+    private void playGame(int g, Entrant player1, Entrant player2, int maxTicks, long seed,
+                          int[] winners, int[] ticks) {
+        try {
+            // У каждого боя свое зерно: турнир с тем же seed повторяется целиком
+            GameEngine engine = new GameEngine(seed + g);
+            engine.setHeadless(true);
+            engine.setWatchdog(watchdog);
+            engine.initializeGame(player1.factory().get(), player2.factory().get());
+
+            while (!engine.isGameOver() && engine.getTick() < maxTicks) {
+                engine.updateGame();
+            }
+
+            winners[g] = engine.getWinner();
+            ticks[g] = (int) engine.getTick();
+            // Отпускает копии загруженных AI: их старые версии могут выгрузиться
+            engine.stopGame();
+        } catch (Exception e) {
+            winners[g] = GAME_FAILED;
+        }
+    }
+
+    private TournamentResult summarize(List<Entrant> entrants, int[] first, int[] second, int[] winners, int[] ticks,
+                                       int matchesPerPairing, int maxTicks, long seed, long elapsedNanos) {
+        int n = entrants.size();
+        int[][] wins = new int[n][n];
+        int[][] draws = new int[n][n];
+        long[] ticksPlayed = new long[n];
+        int[] gamesPlayed = new int[n];
+        int failed = 0;
+        long totalTicks = 0;
+
+        for (int g = 0; g < winners.length; g++) {
+            int a = first[g];
+            int b = second[g];
+            if (winners[g] == GAME_FAILED) {
+                failed++;
+                continue;
+            }
+
+            if (winners[g] == 1) {
+                wins[a][b]++;
+            } else if (winners[g] == 2) {
+                wins[b][a]++;
+            } else {
+                draws[a][b]++;
+                draws[b][a]++;
+            }
+
+            gamesPlayed[a]++;
+            gamesPlayed[b]++;
+            ticksPlayed[a] += ticks[g];
+            ticksPlayed[b] += ticks[g];
+            totalTicks += ticks[g];
+        }
+
+        List<TournamentResult.EntrantStats> standings = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int w = 0;
+            int l = 0;
+            int d = 0;
+            for (int j = 0; j < n; j++) {
+                w += wins[i][j];
+                l += wins[j][i];
+                d += draws[i][j];
+            }
+            int games = gamesPlayed[i];
+            standings.add(TournamentResult.EntrantStats.builder()
+                    .id(entrants.get(i).id())
+                    .name(entrants.get(i).name())
+                    .games(games)
+                    .wins(w)
+                    .losses(l)
+                    .draws(d)
+                    .winRate(games > 0 ? (double) w / games : 0.0)
+                    .averageTicks(games > 0 ? (double) ticksPlayed[i] / games : 0.0)
+                    .build());
+        }
+        standings.sort(Comparator.comparingDouble(TournamentResult.EntrantStats::getWinRate).reversed());
+
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        return TournamentResult.builder()
+                .entrants(entrants.stream().map(Entrant::id).toList())
+                .wins(wins)
+                .draws(draws)
+                .standings(standings)
+                .matchesPerPairing(matchesPerPairing)
+                .maxTicks(maxTicks)
+                .seed(seed)
+                .totalGames(winners.length)
+                .failedGames(failed)
+                .totalTicks(totalTicks)
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .gamesPerSecond(winners.length / seconds)
+                .ticksPerSecond(totalTicks / seconds)
+                .parallelism(pool.getParallelism())
+                .build();
+    }
+
+    private List<Entrant> collectEntrants() {
+        List<Entrant> entrants = new ArrayList<>();
+
+        // Фабрика реестра создает новый экземпляр для каждого боя, чтобы AI с состоянием не делили его.
+        // Номера участников - номера реестра: их же принимает /game/matches.
+        // Порядок реестра: сначала шаблонные, потом пользовательские, по номерам
+        for (AIRegistry.Entry entry : aiRegistry.getEntries()) {
+            entrants.add(new Entrant(entry.id(), entry.name(), entry.factory()));
+        }
+
+        return entrants;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}